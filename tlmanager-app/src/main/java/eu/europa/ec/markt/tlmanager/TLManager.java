@@ -26,10 +26,13 @@ import javax.swing.*;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import eu.europa.ec.markt.tlmanager.batch.BatchProcessor;
+import eu.europa.ec.markt.tlmanager.core.generator.TrustedListGenerator;
 import eu.europa.ec.markt.tlmanager.view.MainFrame;
 
 /**
- * Entry point of TLManager. Instantiates a {@code MainFrame}.
+ * Entry point of TLManager. Instantiates a {@code MainFrame}, or processes lists without user interface if started with
+ * {@link BatchProcessor#BATCH_OPTION}, or writes a synthetic list if started with {@link TrustedListGenerator#GENERATE_OPTION}.
  *
  *
  */
@@ -45,6 +48,15 @@ public class TLManager {
 
         Security.addProvider(new BouncyCastleProvider());
 
+        if ((args.length > 0) && BatchProcessor.BATCH_OPTION.equals(args[0])) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchProcessor.run(args));
+        }
+        if ((args.length > 0) && TrustedListGenerator.GENERATE_OPTION.equals(args[0])) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(TrustedListGenerator.run(args));
+        }
+
         initSwingPreferences();
 
         MainFrame mf = new MainFrame();
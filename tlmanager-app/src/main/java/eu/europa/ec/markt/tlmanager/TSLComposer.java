@@ -20,18 +20,23 @@
  */
 package eu.europa.ec.markt.tlmanager;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Observable;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.MutableTreeNode;
@@ -43,19 +48,18 @@ import javax.xml.bind.Marshaller;
 import javax.xml.bind.UnmarshalException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.datatype.XMLGregorianCalendar;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-import javax.xml.transform.sax.SAXSource;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.XMLReader;
 
+import eu.europa.ec.markt.tlmanager.core.CertificateStore;
 import eu.europa.ec.markt.tlmanager.core.Configuration;
 import eu.europa.ec.markt.tlmanager.core.Migration;
 import eu.europa.ec.markt.tlmanager.core.ObjectFiller;
@@ -74,13 +78,15 @@ import eu.europa.ec.markt.tlmanager.model.treeNodes.ServiceNode;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.TSLDataNode;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.TSLRootNode;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.TSPNode;
+import eu.europa.ec.markt.tlmanager.util.PruningXMLStreamWriter;
 import eu.europa.ec.markt.tlmanager.util.Util;
-import eu.europa.ec.markt.tlmanager.util.WhitespaceFilterXML;
+import eu.europa.ec.markt.tlmanager.util.XmlFactories;
 import eu.europa.ec.markt.tlmanager.view.MainFrame;
 import eu.europa.ec.markt.tlmanager.view.common.NewServiceStatusPanel.Values;
 import eu.europa.ec.markt.tsl.jaxb.ecc.QualificationElementType;
 import eu.europa.ec.markt.tsl.jaxb.ecc.QualificationsType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionsListType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.InternationalNamesType;
@@ -120,16 +126,44 @@ public class TSLComposer extends Observable {
 	private MainFrame mainFrame;
 	private ValidationLogger validationLogger;
 
+	/*
+	 * The shown list as exploded for the validation, kept to revalidate it after an edit; dropped whenever the structure of
+	 * the list changes, cf. notifyObservers()
+	 */
+	private Validation validation;
+
 	private final BigInteger TSL_VERSION_IDENTIFIER;
 
-	private static ObjectFactory objectFactoryTSL;
-	private static eu.europa.ec.markt.tsl.jaxb.ecc.ObjectFactory objectFactoryECC;
+	private static final ObjectFactory objectFactoryTSL = new ObjectFactory();
+	private static final eu.europa.ec.markt.tsl.jaxb.ecc.ObjectFactory objectFactoryECC = new eu.europa.ec.markt.tsl.jaxb.ecc.ObjectFactory();
 
 	private static final Class[] boundClasses = new Class[]{ObjectFactory.class, eu.europa.ec.markt.tsl.jaxb.tslx.ObjectFactory.class, eu.europa.ec.markt.tsl.jaxb.ecc.ObjectFactory.class, eu.europa.ec.markt.tsl.jaxb.xades.ObjectFactory.class};
 
+	/*
+	 * The context is thread-safe and expensive to create, so it is shared by all instances. Marshallers and unmarshallers
+	 * are not thread-safe: the marshaller is created per instance (cf. batch mode, where several composers work in
+	 * parallel), an unmarshaller per load, as lists may be loaded in the background while another load is still running.
+	 */
 	private static JAXBContext jaxbContext;
-	private static Unmarshaller unmarshaller;
-	private static Marshaller marshaller;
+	private Marshaller marshaller;
+
+	/*
+	 * Drops text that consists of whitespaces only, i.e. the indentation of the file.
+	 */
+	private static final StreamFilter WHITESPACE_FILTER = new StreamFilter() {
+		@Override
+		public boolean accept(XMLStreamReader reader) {
+			return !(reader.isCharacters() && reader.isWhiteSpace());
+		}
+	};
+
+	static {
+		try {
+			jaxbContext = JAXBContext.newInstance(boundClasses);
+		} catch (JAXBException ex) {
+			LOG.error(null, ex);
+		}
+	}
 
 	/*
 	 * This Map stores all associations between any created jaxb object that is directly related to a TreeNode and their
@@ -138,28 +172,33 @@ public class TSLComposer extends Observable {
 	 */
 	private Map<Object, TreeNode[]> validationAssociations;
 
+	/*
+	 * Nodes whose children have not been created yet; cf. createNodes()
+	 */
+	private Set<TreeNode> pendingNodes = new HashSet<TreeNode>();
+
+	/*
+	 * All lists that are open; the state of the active one is held by the fields above while it is shown
+	 */
+	private final List<TSLDocument> documents = new ArrayList<TSLDocument>();
+	private TSLDocument activeDocument;
+
 	/**
 	 * The default constructor for TSLComposer.
 	 *
-	 * @param mainFrame an instance of {@code MainFrame}
+	 * @param mainFrame an instance of {@code MainFrame}; may be null, if the composer is used without user interface
 	 */
 	public TSLComposer(MainFrame mainFrame) {
 		this.mainFrame = mainFrame;
 
 		try {
-			jaxbContext = JAXBContext.newInstance(boundClasses);
-			unmarshaller = jaxbContext.createUnmarshaller();
-
 			marshaller = jaxbContext.createMarshaller();
 			// marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new TSLNamespacePrefixMapper());
 		} catch (JAXBException ex) {
 			LOG.error(null, ex);
 		}
 
-		objectFactoryTSL = new ObjectFactory();
-		objectFactoryECC = new eu.europa.ec.markt.tsl.jaxb.ecc.ObjectFactory();
-
-		validationAssociations = new HashMap<Object, TreeNode[]>();
+		validationAssociations = new IdentityHashMap<Object, TreeNode[]>();
 		TSL_VERSION_IDENTIFIER = new BigInteger(Configuration.getInstance().getTSL().getTslVersionIdentifier());
 	}
 
@@ -174,19 +213,139 @@ public class TSLComposer extends Observable {
 	}
 
 	private void resetEnv() {
+		storeActiveDocument(); // keep the previous list in the workspace
 		signatureRemovedFromLastList = false; // there is no signature for a new list
-		clearValidationAssociations(); // clear any previous associations; they will be recreated in createNodes()
+		clearValidationAssociations(); // associations are resolved again on demand
+		fileMigrated = false;
+		migrationMessages = null;
 		treeSorted = false;
+		validationLogger = null;
+	}
+
+	private void addDocument() {
+		activeDocument = new TSLDocument();
+		documents.add(activeDocument);
+		storeActiveDocument();
+	}
+
+	private void storeActiveDocument() {
+		if (activeDocument == null) {
+			return;
+		}
+		activeDocument.tsl = tsl;
+		activeDocument.currentFile = currentFile;
+		activeDocument.signatureRemovedFromLastList = signatureRemovedFromLastList;
+		activeDocument.fileMigrated = fileMigrated;
+		activeDocument.migrationMessages = migrationMessages;
+		activeDocument.treeSorted = treeSorted;
+		activeDocument.validationLogger = validationLogger;
+		activeDocument.validationAssociations = validationAssociations;
+		activeDocument.pendingNodes = pendingNodes;
+	}
+
+	private void restoreDocument(TSLDocument document) {
+		activeDocument = document;
+		tsl = document.tsl;
+		currentFile = document.currentFile;
+		signatureRemovedFromLastList = document.signatureRemovedFromLastList;
+		fileMigrated = document.fileMigrated;
+		migrationMessages = document.migrationMessages;
+		treeSorted = document.treeSorted;
+		validationLogger = document.validationLogger;
+		validationAssociations = document.validationAssociations;
+		pendingNodes = document.pendingNodes;
+		doCreateNodesForData = false;
+	}
+
+	/**
+	 * @return all lists of the workspace, in the order they were opened
+	 */
+	public List<TSLDocument> getDocuments() {
+		storeActiveDocument();
+		return Collections.unmodifiableList(documents);
+	}
+
+	/**
+	 * @return the list that is shown; null if there is none
+	 */
+	public TSLDocument getActiveDocument() {
+		return activeDocument;
+	}
+
+	/**
+	 * Finds the list of the workspace that was read from or saved to a file.
+	 *
+	 * @param file the file
+	 * @return the list, or null if the file is not open
+	 */
+	public TSLDocument findDocument(File file) {
+		for (TSLDocument document : getDocuments()) {
+			if (file.equals(document.getCurrentFile())) {
+				return document;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Shows another list of the workspace. The list and its tree nodes are taken as they were left; nothing is read or
+	 * created again.
+	 *
+	 * @param document the list to show
+	 */
+	public void switchTo(TSLDocument document) {
+		if ((document == activeDocument) || !documents.contains(document)) {
+			return;
+		}
+		storeActiveDocument();
+		restoreDocument(document);
+
+		setChanged();
+		notifyObservers(new TSLComposerEvent(TSLComposerEvent.SWITCH_TSL, null, document));
+	}
+
+	/**
+	 * Removes the shown list from the workspace and shows the list next to it, if there is any.
+	 */
+	public void closeActiveDocument() {
+		int index = documents.indexOf(activeDocument);
+		if (index < 0) {
+			return;
+		}
+		documents.remove(index);
+
+		TSLDocument next = null;
+		if (documents.isEmpty()) {
+			restoreDocument(new TSLDocument());
+			activeDocument = null;
+		} else {
+			next = documents.get(Math.min(index, documents.size() - 1));
+			restoreDocument(next);
+		}
+
+		setChanged();
+		notifyObservers(new TSLComposerEvent(TSLComposerEvent.SWITCH_TSL, null, next));
+	}
+
+	/**
+	 * Records the root of the tree nodes of the shown list.
+	 *
+	 * @param rootNode the root node
+	 */
+	public void setRootNode(TreeNode rootNode) {
+		if (activeDocument != null) {
+			activeDocument.rootNode = rootNode;
+		}
 	}
 
 	/**
 	 * Create a new TSL.
 	 */
 	public void newTSL() {
-		tsl = objectFactoryTSL.createTrustStatusListType();
-
 		resetEnv();
 
+		tsl = objectFactoryTSL.createTrustStatusListType();
+
 		try {
 			ObjectFiller.fillAll(tsl);
 		} catch (FillerException fe) {
@@ -195,13 +354,16 @@ public class TSLComposer extends Observable {
 
 		// reset currentFile
 		currentFile = null;
+		addDocument();
 
 		setChanged();
 		notifyObservers(new TSLComposerEvent(TSLComposerEvent.NEW_TSL, null, getTsl()));
 	}
 
 	private void clearValidationAssociations() {
-		validationAssociations.clear();
+		// new instances, the previous ones may belong to a list of the workspace
+		validationAssociations = new IdentityHashMap<Object, TreeNode[]>();
+		pendingNodes = new HashSet<TreeNode>();
 	}
 
 	/**
@@ -235,41 +397,67 @@ public class TSLComposer extends Observable {
 	 * @throws eu.europa.ec.markt.tlmanager.core.exception.OpenException
 	 */
 	public void openFile(File inputFile) throws OpenException {
+		openFile(loadFile(inputFile, null));
+	}
+
+	/**
+	 * Reads a tsl from a file, migrates it and fills in everything that is needed to work with it. The list is read with an
+	 * unmarshaller of its own and the state of the composer is neither read nor changed, so this may be called outside of
+	 * the event dispatch thread, even while another load is running; the result is shown with
+	 * {@link #openFile(LoadedList)}.
+	 *
+	 * @param inputFile the input file
+	 * @param progressListener receives the progress; may be null
+	 * @return the loaded list
+	 * @throws eu.europa.ec.markt.tlmanager.core.exception.OpenException
+	 */
+	public LoadedList loadFile(File inputFile, final LoadProgressListener progressListener) throws OpenException {
 
 		FileInputStream inputStream = null;
+		XMLStreamReader reader = null;
 		String userMessage = uiKeys.getString("TSLComposer.open.error.error") + " ";
-		resetEnv();
 		try {
 
 			inputStream = new FileInputStream(inputFile);
 
-			SAXParserFactory spf = SAXParserFactory.newInstance();
-			spf.setNamespaceAware(true);
-			SAXParser parser = spf.newSAXParser();
-			XMLReader reader = parser.getXMLReader();
-
-			WhitespaceFilterXML inFilter = new WhitespaceFilterXML();
-			inFilter.setParent(reader);
-
-			InputSource is = new InputSource(inputStream);
-			SAXSource source = new SAXSource(inFilter, is);
+			// the stream reader hands out each text node in one piece, so whitespace-only text can be dropped right away
+			XMLInputFactory inputFactory = XmlFactories.getXMLInputFactory();
+			reader = inputFactory.createFilteredReader(inputFactory.createXMLStreamReader(inputStream), WHITESPACE_FILTER);
+
+			// certificates are interned as soon as they are read, so that duplicates never stay referenced by the list
+			final CertificateStore certificateStore = CertificateStore.getInstance();
+			final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+			unmarshaller.setListener(new Unmarshaller.Listener() {
+				private int providers;
+				private int services;
+
+				@Override
+				public void afterUnmarshal(Object target, Object parent) {
+					if (target instanceof DigitalIdentityType) {
+						certificateStore.intern((DigitalIdentityType) target);
+					} else if (target instanceof TSPServiceType) {
+						services++;
+					} else if ((target instanceof TSPType) && (progressListener != null)) {
+						progressListener.loaded(++providers, services);
+					}
+				}
+			});
 
 			// ValidationEventCollector vec = new ValidationEventCollector();
 			// unmarshaller.setEventHandler(vec);
 			// unmarshaller.setSchema(...)
-			JAXBElement<TrustStatusListType> jaxbElement = (JAXBElement<TrustStatusListType>) unmarshaller.unmarshal(source);
+			JAXBElement<TrustStatusListType> jaxbElement = (JAXBElement<TrustStatusListType>) unmarshaller.unmarshal(reader);
 
+			final LoadedList loadedList = new LoadedList(inputFile);
 			final boolean conversionPossible = isConversionPossible(jaxbElement.getValue());
 			if (conversionPossible) {
 
 				final Migration migration = new Migration(jaxbElement);
 				final boolean hasChanged = migration.migrate();
-				fileMigrated = hasChanged;
-				migrationMessages = migration.getMigrationMessages();
+				loadedList.migrated = hasChanged;
+				loadedList.migrationMessages = migration.getMigrationMessages();
 			} else {
 
-				fileMigrated = false;
-				migrationMessages = null;
 				throw new OpenException(uiKeys.getString("TSLComposer.open.error.unableToRead"));
 			}
 
@@ -296,25 +484,18 @@ public class TSLComposer extends Observable {
 				throw new OpenException(resultMessage);
 			}
 
-			tsl = jaxbElement.getValue();
-			if (!isFileMigrated()) {
-				currentFile = inputFile;
-			} else {
-				currentFile = null;
-			}
-
-			if (tsl.getSignature() != null) {
-				tsl.setSignature(null);
-				signatureRemovedFromLastList = true;
+			loadedList.tsl = jaxbElement.getValue();
+			if (loadedList.tsl.getSignature() != null) {
+				loadedList.tsl.setSignature(null);
+				loadedList.signatureRemoved = true;
 			}
 
 			// ensure that the tsl contains everything that is needed to work with it
-			ObjectFiller.fillAll(tsl);
-
-			doCreateNodesForData = true;
+			ObjectFiller.fillAll(loadedList.tsl);
 
-			setChanged();
-			notifyObservers(new TSLComposerEvent(TSLComposerEvent.NEW_TSL, null, tsl));
+			return loadedList;
+		} catch (OpenException ex) {
+			throw ex;
 		} catch (UnmarshalException uex) {
 			if ((uex.getMessage() != null) && !uex.getMessage().isEmpty()) {
 				userMessage += uex.getMessage();
@@ -336,6 +517,13 @@ public class TSLComposer extends Observable {
 			LOG.error(userMessage, ex);
 			throw new OpenException(userMessage, ex);
 		} finally {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+			} catch (XMLStreamException ex) {
+				LOG.error(null, ex);
+			}
 			try {
 				if (inputStream != null) {
 					inputStream.close();
@@ -346,6 +534,55 @@ public class TSLComposer extends Observable {
 		}
 	}
 
+	/**
+	 * Shows a list that was read by {@link #loadFile(File, LoadProgressListener)}.
+	 *
+	 * @param loadedList the loaded list
+	 */
+	public void openFile(LoadedList loadedList) {
+		resetEnv();
+		fileMigrated = loadedList.migrated;
+		migrationMessages = loadedList.migrationMessages;
+		signatureRemovedFromLastList = loadedList.signatureRemoved;
+
+		tsl = loadedList.tsl;
+		if (!isFileMigrated()) {
+			currentFile = loadedList.file;
+		} else {
+			currentFile = null;
+		}
+
+		doCreateNodesForData = true;
+		addDocument();
+
+		setChanged();
+		notifyObservers(new TSLComposerEvent(TSLComposerEvent.NEW_TSL, null, tsl));
+	}
+
+	/**
+	 * Shows a list that was not read from a file, e.g. a generated one. The list has no file until it is saved.
+	 *
+	 * @param trustStatusList the list to show
+	 */
+	public void openTSL(TrustStatusListType trustStatusList) {
+		resetEnv();
+
+		tsl = trustStatusList;
+		try {
+			ObjectFiller.fillAll(tsl);
+		} catch (FillerException fe) {
+			LOG.warn("An error occurred while filling objects for the TSL! " + fe.getMessage(), fe);
+		}
+		CertificateStore.getInstance().internAll(tsl);
+
+		currentFile = null;
+		doCreateNodesForData = true;
+		addDocument();
+
+		setChanged();
+		notifyObservers(new TSLComposerEvent(TSLComposerEvent.NEW_TSL, null, tsl));
+	}
+
 	private boolean isConversionPossible(TrustStatusListType trustStatusListType) {
 
 		final BigInteger tslVersionIdentifier = trustStatusListType.getSchemeInformation().getTSLVersionIdentifier();
@@ -391,121 +628,172 @@ public class TSLComposer extends Observable {
 	}
 
 	/**
-	 * Create nodes recursively depending on what data is available in the initially provided {@code TrustStatusListType}. It will be ensured, that no node is created as a child
-	 * of
-	 * a node with the same type. The associations between created node's (their paths) and the user objects is maintained in a separate map.
+	 * Creates the child nodes of a node depending on what data is available in its user object. Only one level is
+	 * created; the children of the new nodes are created on demand by {@link #ensureChildrenCreated(DefaultMutableTreeNode)},
+	 * i.e. when a branch is expanded. Paths of nodes are resolved on demand as well, cf.
+	 * {@link #findUserObjectPath(Object)}.
 	 *
 	 * @param node     the parent node
-	 * @param treePart the current section of the tree
+	 * @param treePart the user object of the parent node
 	 */
 	public void createNodes(DefaultMutableTreeNode node, Object treePart) {
 		if (doCreateNodesForData) {
 			doCreateNodesForData = false;
 		}
+		pendingNodes.remove(node);
+		for (Object childObject : getChildObjects(treePart)) {
+			DefaultMutableTreeNode newChild = createNode(childObject);
+			node.add(newChild);
+			pendingNodes.add(newChild);
+		}
+	}
+
+	/**
+	 * Creates the child nodes of a node, if this was not done yet. Must be called before an object is added to the user
+	 * object of the node; otherwise the node for the new object would be created twice.
+	 *
+	 * @param node the node
+	 * @return true, if nodes were created
+	 */
+	public boolean ensureChildrenCreated(DefaultMutableTreeNode node) {
+		if (!pendingNodes.contains(node)) {
+			return false;
+		}
+		createNodes(node, node.getUserObject());
+		return true;
+	}
+
+	/**
+	 * @param node the node
+	 * @return true, if the child nodes of the node were created
+	 */
+	public boolean areChildrenCreated(DefaultMutableTreeNode node) {
+		return !pendingNodes.contains(node);
+	}
+
+	/**
+	 * Creates all nodes below a node that were not created yet.
+	 *
+	 * @param node the node to start
+	 */
+	public void ensureSubtreeCreated(DefaultMutableTreeNode node) {
+		ensureChildrenCreated(node);
+		for (int i = 0; i < node.getChildCount(); i++) {
+			ensureSubtreeCreated((DefaultMutableTreeNode) node.getChildAt(i));
+		}
+	}
+
+	/**
+	 * Tells whether there will be child nodes for a user object, without creating them.
+	 *
+	 * @param treePart the user object
+	 * @return true, if there are child nodes
+	 */
+	public boolean hasChildObjects(Object treePart) {
+		return !getChildObjects(treePart).isEmpty();
+	}
+
+	/**
+	 * Determines the user objects from the tsl down to the given object, i.e. the user objects of the path of the tree node
+	 * representing the object.
+	 *
+	 * @param userObject the user object to find
+	 * @return the user objects on the path, or null if there is no node for the object
+	 */
+	public List<Object> findUserObjectPath(Object userObject) {
+		if (tsl == null) {
+			return null;
+		}
+		List<Object> path = new ArrayList<Object>();
+		path.add(tsl);
+		return findUserObjectPath(path, userObject) ? path : null;
+	}
+
+	private boolean findUserObjectPath(List<Object> path, Object userObject) {
+		Object last = path.get(path.size() - 1);
+		if (last == userObject) {
+			return true;
+		}
+		for (Object child : getChildObjects(last)) {
+			path.add(child);
+			if (findUserObjectPath(path, userObject)) {
+				return true;
+			}
+			path.remove(path.size() - 1);
+		}
+		return false;
+	}
+
+	/**
+	 * Determines the user objects of the child nodes of a node, in the order of the nodes.
+	 *
+	 * @param treePart the user object of the parent node
+	 * @return the user objects of the children
+	 */
+	private List<Object> getChildObjects(Object treePart) {
+		List<Object> children = new ArrayList<Object>();
 		if (treePart instanceof TrustStatusListType) {
 			TrustStatusListType trustStatusList = (TrustStatusListType) treePart;
 			TrustServiceProviderListType trustServiceProviderList = trustStatusList.getTrustServiceProviderList();
 			if (trustServiceProviderList != null) {
-				for (TSPType tsp : trustServiceProviderList.getTrustServiceProvider()) {
-					createNodes(node, tsp);
-				}
+				children.addAll(trustServiceProviderList.getTrustServiceProvider());
 			}
 			OtherTSLPointersType pointersToOtherTSL = trustStatusList.getSchemeInformation().getPointersToOtherTSL();
 			if (pointersToOtherTSL != null) {
-				for (OtherTSLPointerType pointer : pointersToOtherTSL.getOtherTSLPointer()) {
-					createNodes(node, pointer);
-				}
+				children.addAll(pointersToOtherTSL.getOtherTSLPointer());
 			}
-		} else if (treePart instanceof OtherTSLPointerType) {
-			OtherTSLPointerType otherTSLPointer = (OtherTSLPointerType) treePart;
-			PointerNode newChild = new PointerNode(otherTSLPointer);
-			if (!(node instanceof PointerNode)) {
-
-				node.add(newChild);
-				addValidationAssociation(otherTSLPointer, newChild.getPath());
-			}
-
 		} else if (treePart instanceof TSPType) {
-			TSPType tspType = (TSPType) treePart;
-			TSPNode newChild = new TSPNode(tspType);
-			if (node instanceof TSPNode) {
-				newChild = (TSPNode) node;
-			} else {
-				node.add(newChild);
-				addValidationAssociation(tspType, newChild.getPath());
-			}
-			TSPServicesListType tspServices = tspType.getTSPServices();
+			TSPServicesListType tspServices = ((TSPType) treePart).getTSPServices();
 			if (tspServices != null) {
-				for (TSPServiceType service : tspServices.getTSPService()) {
-					createNodes(newChild, service);
-				}
+				children.addAll(tspServices.getTSPService());
 			}
 		} else if (treePart instanceof TSPServiceType) {
 			TSPServiceType tspService = (TSPServiceType) treePart;
-			ServiceNode newChild = new ServiceNode(tspService);
-			if (node instanceof ServiceNode) {
-				newChild = (ServiceNode) node;
-			} else {
-				node.add(newChild);
-				addValidationAssociation(tspService, newChild.getPath());
-			}
 			// extension
 			TSPServiceInformationType serviceInformation = tspService.getServiceInformation();
-			if (serviceInformation != null) {
-				ExtensionsListType serviceInformationExtensions = serviceInformation.getServiceInformationExtensions();
-				if (serviceInformationExtensions != null) {
-					createNodes(newChild, serviceInformationExtensions);
-				}
+			if ((serviceInformation != null) && (serviceInformation.getServiceInformationExtensions() != null)) {
+				children.add(serviceInformation.getServiceInformationExtensions());
 			}
 			// history
 			ServiceHistoryType serviceHistory = tspService.getServiceHistory();
 			if (serviceHistory != null) {
-				for (ServiceHistoryInstanceType history : serviceHistory.getServiceHistoryInstance()) {
-					createNodes(newChild, history);
-				}
+				children.addAll(serviceHistory.getServiceHistoryInstance());
 			}
 		} else if (treePart instanceof ExtensionsListType) {
-			ExtensionsListType extensionsList = (ExtensionsListType) treePart;
-			ExtensionNode newChild = new ExtensionNode(extensionsList);
-			if (node instanceof ExtensionNode) {
-				newChild = (ExtensionNode) node;
-			} else {
-				node.add(newChild);
-				addValidationAssociation(extensionsList, newChild.getPath());
-			}
 			// special case: if there is an extensiontype with qname of qualificationelementtype ...
-			for (ExtensionType extension : extensionsList.getExtension()) {
-				List<Object> content = extension.getContent();
-				for (Object obj : content) {
+			for (ExtensionType extension : ((ExtensionsListType) treePart).getExtension()) {
+				for (Object obj : extension.getContent()) {
 					if (obj instanceof JAXBElement<?>) {
 						JAXBElement<?> element = (JAXBElement<?>) obj;
 						if (element.getName().equals(QNames._Qualifications_QNAME)) {
 							QualificationsType qualifications = (QualificationsType) element.getValue();
-							for (QualificationElementType qElement : qualifications.getQualificationElement()) {
-								createNodes(newChild, qElement);
-							}
+							children.addAll(qualifications.getQualificationElement());
 						}
 					}
 				}
 			}
 		} else if (treePart instanceof ServiceHistoryInstanceType) {
-			ServiceHistoryInstanceType serviceHistoryInstance = (ServiceHistoryInstanceType) treePart;
-			HistoryNode newChild = new HistoryNode(serviceHistoryInstance);
-			if (node instanceof HistoryNode) {
-				newChild = (HistoryNode) node;
-			} else {
-				node.add(newChild);
-				addValidationAssociation(serviceHistoryInstance, newChild.getPath());
-			}
-			ExtensionsListType serviceInformationExtensions = serviceHistoryInstance.getServiceInformationExtensions();
+			ExtensionsListType serviceInformationExtensions = ((ServiceHistoryInstanceType) treePart).getServiceInformationExtensions();
 			if (serviceInformationExtensions != null) {
-				createNodes(newChild, serviceInformationExtensions);
+				children.add(serviceInformationExtensions);
 			}
-		} else if (treePart instanceof QualificationElementType) {
-			QualificationElementType qualificationElement = (QualificationElementType) treePart;
-			QualificationNode newChild = new QualificationNode(qualificationElement);
-			node.add(newChild);
-			addValidationAssociation(qualificationElement, newChild.getPath());
+		}
+		return children;
+	}
+
+	private DefaultMutableTreeNode createNode(Object userObject) {
+		if (userObject instanceof OtherTSLPointerType) {
+			return new PointerNode((OtherTSLPointerType) userObject);
+		} else if (userObject instanceof TSPType) {
+			return new TSPNode((TSPType) userObject);
+		} else if (userObject instanceof TSPServiceType) {
+			return new ServiceNode((TSPServiceType) userObject);
+		} else if (userObject instanceof ExtensionsListType) {
+			return new ExtensionNode((ExtensionsListType) userObject);
+		} else if (userObject instanceof ServiceHistoryInstanceType) {
+			return new HistoryNode((ServiceHistoryInstanceType) userObject);
+		} else {
+			return new QualificationNode((QualificationElementType) userObject);
 		}
 	}
 
@@ -540,22 +828,65 @@ public class TSLComposer extends Observable {
 			throw new SaveException(message);
 		}
 
-		Document document;
+		LOG.debug("Saving {}", new Object[]{currentFile.getAbsolutePath()});
+
+		if (treeSorted) {
+			saveSorted();
+			return;
+		}
+
+		// empty content is dropped while the list is written, cf. PruningXMLStreamWriter; the file is only touched once
+		// marshalling succeeded
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 		try {
 
-			document = marshall();
+			XMLStreamWriter writer = new PruningXMLStreamWriter(XmlFactories.getXMLOutputFactory().createXMLStreamWriter(buffer, "UTF-8"), "UTF-8", 3);
+			marshaller.marshal(createTslElement(), writer);
+			writer.close();
 		} catch (Exception ex) {
 			final String message = uiKeys.getString("TSLComposer.saving.error.marshalling") + " " + ex.getMessage();
 			LOG.error(message, ex);
 			throw new SaveException(message, ex);
 		}
 
-		LOG.debug("Saving {}", new Object[]{currentFile.getAbsolutePath()});
+		FileOutputStream outputStream = null;
+		try {
 
-		if (treeSorted) {
-			Util.sortChildNodes(document.getDocumentElement(), true);
+			outputStream = new FileOutputStream(currentFile);
+			buffer.writeTo(outputStream);
+		} catch (Exception ex) {
+			final String message = uiKeys.getString("TSLComposer.saving.error.saving") + " " + ex.getMessage();
+			LOG.error(message, ex);
+			throw new SaveException(message, ex);
+		} finally {
+			try {
+				if (outputStream != null) {
+					outputStream.close();
+				}
+			} catch (IOException ex) {
+				LOG.error(null, ex);
+			}
+		}
+	}
+
+	/**
+	 * Saves a sorted tree; sorting is done on the marshalled {@code Document}.
+	 *
+	 * @throws eu.europa.ec.markt.tlmanager.core.exception.SaveException
+	 */
+	private void saveSorted() throws SaveException {
+		Document document;
+		try {
+
+			document = marshall();
+		} catch (Exception ex) {
+			final String message = uiKeys.getString("TSLComposer.saving.error.marshalling") + " " + ex.getMessage();
+			LOG.error(message, ex);
+			throw new SaveException(message, ex);
 		}
 
+		Util.sortChildNodes(document.getDocumentElement(), true);
+
 		try {
 
 			Util.prettySave(document, currentFile);
@@ -574,6 +905,22 @@ public class TSLComposer extends Observable {
 	 * @throws javax.xml.parsers.ParserConfigurationException
 	 */
 	public Document marshall() throws JAXBException, ParserConfigurationException {
+		Document document = XmlFactories.newDocument();
+
+		marshaller.marshal(createTslElement(), document);
+		// marshaller.marshal(tslElement, System.out);
+
+		Util.removeEmptyNodesFromTheBottom(document.getDocumentElement());
+
+		return document;
+	}
+
+	/**
+	 * Prepares the current {@code TrustStatusListType} for marshalling.
+	 *
+	 * @return the root element to marshall
+	 */
+	private JAXBElement<TrustStatusListType> createTslElement() {
 		TrustStatusListType trustStatusList = getTsl();
 
 		// TSLTag
@@ -589,21 +936,11 @@ public class TSLComposer extends Observable {
 		}
 		schemeInformation.setTSLVersionIdentifier(TSL_VERSION_IDENTIFIER);
 
-		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-		documentBuilderFactory.setNamespaceAware(true);
-		DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-		Document document = documentBuilder.newDocument();
-
 		JAXBElement<TrustStatusListType> tslElement = objectFactoryTSL.createTrustServiceStatusList(trustStatusList);
 
 		recreateNextUpdateNode(tslElement);
 
-		marshaller.marshal(tslElement, document);
-		// marshaller.marshal(tslElement, System.out);
-
-		Util.removeEmptyNodesFromTheBottom(document.getDocumentElement());
-
-		return document;
+		return tslElement;
 	}
 
 	private void recreateNextUpdateNode(JAXBElement<TrustStatusListType> tslElement) {
@@ -643,16 +980,70 @@ public class TSLComposer extends Observable {
 	 * @return the resulting {@code ValidationLogger}
 	 */
 	public ValidationLogger startValidation() {
-		// setup validation parameters
+		return startValidation(createValidationParameters());
+	}
+
+	/**
+	 * Creates the validation parameters from the current state of the user interface. Must be called on the event
+	 * dispatch thread, if there is a user interface.
+	 *
+	 * @return the validation parameters
+	 */
+	public ValidationParameters createValidationParameters() {
 		ValidationParameters vp = new ValidationParameters();
-		vp.setListIsClosed(mainFrame.isListClosed());
+		vp.setListIsClosed((mainFrame != null) && mainFrame.isListClosed());
+		vp.setParallel(Configuration.getInstance().isParallelValidation());
 
+		return vp;
+	}
+
+	/**
+	 * Starts the validation with the provided parameters. Does not require any user interface.
+	 *
+	 * @param vp the validation parameters
+	 * @return the resulting {@code ValidationLogger}
+	 */
+	public ValidationLogger startValidation(ValidationParameters vp) {
 		Validation validation = new Validation(vp, getTsl());
 		validationLogger = validation.validate();
 
 		return validationLogger;
 	}
 
+	/**
+	 * Brings the log of the shown list up to date after one of its objects was edited; cf.
+	 * {@link Validation#revalidate(ValidationLogger, Object)}. The list is exploded once and then reused, until its
+	 * structure changes. Must be called on the event dispatch thread, if there is a user interface.
+	 *
+	 * @param vp the validation parameters
+	 * @param changed the edited object
+	 * @return the updated {@code ValidationLogger}; null, if the list was not validated yet
+	 */
+	public ValidationLogger revalidate(ValidationParameters vp, Object changed) {
+		if (validationLogger == null) {
+			return null;
+		}
+		if (validation == null) {
+			validation = new Validation(vp, getTsl());
+		} else {
+			validation.setValidationParameters(vp);
+		}
+
+		return validation.revalidate(validationLogger, changed);
+	}
+
+	/**
+	 * Every event changes the shown list or its structure, i.e. nodes were added, removed or sorted; the exploded list is
+	 * dropped before the observers learn about it.
+	 *
+	 * @param arg the {@code TSLComposerEvent}
+	 */
+	@Override
+	public void notifyObservers(Object arg) {
+		validation = null;
+		super.notifyObservers(arg);
+	}
+
 	/**
 	 * @return the validationLogger
 	 */
@@ -789,6 +1180,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addPointerToOtherTSL(TSLRootNode parent) {
+		ensureChildrenCreated(parent);
 		try {
 			OtherTSLPointerType pointer = objectFactoryTSL.createOtherTSLPointerType();
 
@@ -807,6 +1199,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addTSP(TSLRootNode parent) {
+		ensureChildrenCreated(parent);
 		try {
 			TSPType tsp = createTSP();
 			getTSPList().add(tsp);
@@ -824,6 +1217,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addServiceToTSP(TSPNode parent) {
+		ensureChildrenCreated(parent);
 		TSPType tsp = parent.getUserObject();
 		try {
 			TSPServiceType service = createService();
@@ -857,6 +1251,7 @@ public class TSLComposer extends Observable {
 
 		Values newStatusValues = mainFrame.queryForNewServiceStatusValues();
 		if (newStatusValues != null) {
+			ensureChildrenCreated(parent);
 			try {
 				// do a deep copy of all the extensions
 				ExtensionsListType serviceInformationExtensions = serviceInformation.getServiceInformationExtensions();
@@ -893,6 +1288,8 @@ public class TSLComposer extends Observable {
 
 				// we used to get rid of everything than the certificate, extract the subject name and create a digitalidentity for it - keep only this for the history.
 
+				// the copy shares the certificates of the service instead of holding its own arrays
+				CertificateStore.getInstance().intern(copiedDigitalIdentity);
 				history.setServiceDigitalIdentity(copiedDigitalIdentity);
 
 				// now current status and date have been copied from service: set new values
@@ -915,6 +1312,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addInformationExtension(ServiceNode parent) {
+		ensureChildrenCreated(parent);
 		TSPServiceType service = parent.getUserObject();
 		try {
 			ExtensionsListType extensionsList = objectFactoryTSL.createExtensionsListType();
@@ -933,6 +1331,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addInformationExtension(HistoryNode parent) {
+		ensureChildrenCreated(parent);
 		ServiceHistoryInstanceType history = parent.getUserObject();
 		try {
 			ExtensionsListType extensionsList = objectFactoryTSL.createExtensionsListType();
@@ -953,6 +1352,7 @@ public class TSLComposer extends Observable {
 	 * @param parent the parent to add the new object to
 	 */
 	public void addQualificationExtension(ExtensionNode parent) {
+		ensureChildrenCreated(parent);
 		ExtensionsListType extensionList = parent.getUserObject();
 		// determine if there is already an extensiontype with a content of a QualificationElementType
 		QualificationsType qualifications = null;
@@ -996,6 +1396,8 @@ public class TSLComposer extends Observable {
 	 * @param first the node to start
 	 */
 	public void removeAllUserObjectsFromAssociatedMap(DefaultMutableTreeNode first) {
+		// messages may refer to any object below, even if there are no nodes for it yet
+		ensureSubtreeCreated(first);
 		Enumeration enumeration = first.breadthFirstEnumeration();
 		List<Object> userObjects = new ArrayList<Object>();
 
@@ -1003,13 +1405,14 @@ public class TSLComposer extends Observable {
 			Object nextElement = enumeration.nextElement();
 			DefaultMutableTreeNode dmtn = (DefaultMutableTreeNode) nextElement;
 			userObjects.add(dmtn.getUserObject());
+			pendingNodes.remove(dmtn);
 		}
 
 		for (Object uo : userObjects) {
 			validationAssociations.remove(uo);
 		}
 
-		if ((validationLogger != null) && validationLogger.removeMessagesForObjects(userObjects)) {
+		if ((validationLogger != null) && validationLogger.removeMessagesForObjects(userObjects) && (mainFrame != null)) {
 			mainFrame.updateLogDialog(validationLogger.getMessages());
 		}
 	}
@@ -1093,9 +1496,40 @@ public class TSLComposer extends Observable {
 	 */
 	public void sortChildren(TSLDataNode node) {
 		treeSorted = true;
+		// sorting is recursive; nodes created later would not be sorted
+		ensureSubtreeCreated((DefaultMutableTreeNode) node);
 		node.sort();
 
 		setChanged();
 		notifyObservers(new TSLComposerEvent(TSLComposerEvent.SORT_NODE, (MutableTreeNode) node, null));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Receives the progress while a list is loaded.
+	 */
+	public interface LoadProgressListener {
+
+		/**
+		 * Called on the loading thread each time a trust service provider was read.
+		 *
+		 * @param providers the number of trust service providers read so far
+		 * @param services the number of services read so far
+		 */
+		void loaded(int providers, int services);
+	}
+
+	/**
+	 * A list read by {@link TSLComposer#loadFile(File, LoadProgressListener)} that is not shown yet.
+	 */
+	public static class LoadedList {
+		private final File file;
+		private TrustStatusListType tsl;
+		private boolean migrated;
+		private Migration.MigrationMessages migrationMessages;
+		private boolean signatureRemoved;
+
+		private LoadedList(File file) {
+			this.file = file;
+		}
+	}
+}
@@ -41,6 +41,7 @@ public class TSLComposerEvent {
     public static final String ADD_QUALIFICATIONEXTENSION = "ADDQUALIFICATIONEXTENSION";
     public static final String REMOVE_NODE = "REMOVENODE";
     public static final String SORT_NODE = "SORTNODE";
+    public static final String SWITCH_TSL = "SWITCHTSL";
 
     private String eventCode;
     private MutableTreeNode parentNode;
@@ -0,0 +1,89 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import javax.swing.tree.TreeNode;
+
+import eu.europa.ec.markt.tlmanager.core.Configuration;
+import eu.europa.ec.markt.tlmanager.core.Migration;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * A list of the workspace of the {@code TSLComposer}. It keeps the state of a list together with the tree nodes that
+ * were created for it, so that switching back to it does not require to read or build anything again. While a list is
+ * shown, its state is held by the {@code TSLComposer}; cf. {@link TSLComposer#switchTo(TSLDocument)}.
+ *
+ *
+ */
+
+public class TSLDocument {
+
+	private static final ResourceBundle uiKeys = ResourceBundle.getBundle("eu/europa/ec/markt/tlmanager/uiKeys", Configuration.getInstance().getLocale());
+
+	TrustStatusListType tsl;
+	File currentFile;
+	boolean signatureRemovedFromLastList;
+	boolean fileMigrated;
+	Migration.MigrationMessages migrationMessages;
+	boolean treeSorted;
+	ValidationLogger validationLogger;
+	Map<Object, TreeNode[]> validationAssociations = new IdentityHashMap<Object, TreeNode[]>();
+	Set<TreeNode> pendingNodes = new HashSet<TreeNode>();
+	TreeNode rootNode;
+
+	/**
+	 * @return the list
+	 */
+	public TrustStatusListType getTsl() {
+		return tsl;
+	}
+
+	/**
+	 * @return the file of the list; null if it was not saved yet
+	 */
+	public File getCurrentFile() {
+		return currentFile;
+	}
+
+	/**
+	 * @return the root of the tree nodes of the list
+	 */
+	public TreeNode getRootNode() {
+		return rootNode;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		if (currentFile == null) {
+			return uiKeys.getString("TSLDocument.untitled");
+		}
+		return currentFile.getName();
+	}
+}
@@ -0,0 +1,357 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.batch;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.core.CertificateCache;
+import eu.europa.ec.markt.tlmanager.core.CertificateStore;
+import eu.europa.ec.markt.tlmanager.core.Configuration;
+import eu.europa.ec.markt.tlmanager.core.exception.OpenException;
+import eu.europa.ec.markt.tlmanager.core.exception.SaveException;
+import eu.europa.ec.markt.tlmanager.core.report.ReportFormat;
+import eu.europa.ec.markt.tlmanager.core.report.ValidationReport;
+import eu.europa.ec.markt.tlmanager.core.validation.DocumentLocations;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationParameters;
+
+/**
+ * Headless processing of many trusted lists: every list is opened, validated and saved on a bounded pool of worker threads and
+ * machine readable reports (JSON, JUnit XML or SARIF) are written per list. Each list gets its own {@code TSLComposer}, so
+ * lists never share any mutable state.
+ *
+ *
+ */
+
+public class BatchProcessor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchProcessor.class);
+
+	/** The command line switch that starts the batch mode instead of the user interface. */
+	public static final String BATCH_OPTION = "-batch";
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_VALIDATION_ERRORS = 1;
+	public static final int EXIT_FAILURES = 2;
+	public static final int EXIT_USAGE = 3;
+
+	private static final String DEFAULT_OUTPUT_DIRECTORY = "batch-output";
+
+	private final int threads;
+	private final File outputDirectory;
+	private final boolean listClosed;
+	private final Set<ReportFormat> formats;
+
+	/**
+	 * Instantiates a new batch processor.
+	 *
+	 * @param threads the maximum number of lists that are processed at the same time
+	 * @param outputDirectory the directory that receives the saved lists and the reports
+	 * @param listClosed the value of the validation parameter 'list is closed'
+	 * @param formats the formats of the reports that are written per list
+	 */
+	public BatchProcessor(int threads, File outputDirectory, boolean listClosed, Set<ReportFormat> formats) {
+		this.threads = Math.max(1, threads);
+		this.outputDirectory = outputDirectory;
+		this.listClosed = listClosed;
+		this.formats = EnumSet.copyOf(formats);
+	}
+
+	/**
+	 * Parses the command line, processes all given lists and prints a short summary.
+	 *
+	 * @param args the command line arguments, starting with {@link #BATCH_OPTION}
+	 * @return the exit code
+	 */
+	public static int run(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		File outputDirectory = new File(DEFAULT_OUTPUT_DIRECTORY);
+		boolean listClosed = false;
+		Set<ReportFormat> formats = EnumSet.noneOf(ReportFormat.class);
+		List<String> paths = new ArrayList<String>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (BATCH_OPTION.equals(arg)) {
+					continue;
+				} else if ("-threads".equals(arg)) {
+					threads = Integer.parseInt(args[++i]);
+				} else if ("-out".equals(arg)) {
+					outputDirectory = new File(args[++i]);
+				} else if ("-closed".equals(arg)) {
+					listClosed = true;
+				} else if ("-format".equals(arg)) {
+					for (String format : args[++i].split(",")) {
+						formats.add(ReportFormat.forName(format.trim()));
+					}
+				} else if (arg.startsWith("-")) {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				} else {
+					paths.add(arg);
+				}
+			}
+		} catch (RuntimeException ex) {
+			// ArrayIndexOutOfBounds, NumberFormat or IllegalArgument
+			System.err.println(ex.getMessage());
+			printUsage();
+			return EXIT_USAGE;
+		}
+
+		if (formats.isEmpty()) {
+			formats.add(ReportFormat.JSON);
+		}
+
+		List<File> inputFiles = collectInputFiles(paths);
+		if (inputFiles.isEmpty()) {
+			System.err.println("No trusted list found.");
+			printUsage();
+			return EXIT_USAGE;
+		}
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			System.err.println("Unable to create output directory " + outputDirectory.getAbsolutePath());
+			return EXIT_USAGE;
+		}
+
+		BatchProcessor processor = new BatchProcessor(threads, outputDirectory, listClosed, formats);
+		List<BatchResult> results;
+		try {
+			results = processor.process(inputFiles);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			System.err.println("Batch processing interrupted.");
+			return EXIT_FAILURES;
+		}
+
+		int exitCode = EXIT_OK;
+		for (BatchResult result : results) {
+			String state;
+			if (result.isFailed()) {
+				state = "FAILED  " + result.getError();
+				exitCode = EXIT_FAILURES;
+			} else if (result.hasValidationErrors()) {
+				state = "ERRORS";
+				exitCode = Math.max(exitCode, EXIT_VALIDATION_ERRORS);
+			} else {
+				state = "OK";
+			}
+			System.out.println(String.format("%-40s %6d ms  %s", result.getInputFile().getName(), result.getDurationMillis(), state));
+		}
+		LOG.info("{}", CertificateCache.getInstance());
+		LOG.info("{}", CertificateStore.getInstance());
+
+		return exitCode;
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: " + BATCH_OPTION + " [-threads n] [-out directory] [-closed] [-format json,junit,sarif] file|directory...");
+		System.err.println("  Opens, validates and saves every given trusted list (all *.xml files of a directory) and writes one");
+		System.err.println("  report per list and format (default: json). The mode (TL/LOTL, EU/NON-EU) is taken from the configuration,");
+		System.err.println("  as for the user interface.");
+	}
+
+	/**
+	 * Resolves the given paths to the list of files to process. Directories contribute all their xml files in alphabetical order.
+	 *
+	 * @param paths the files and directories
+	 * @return the files to process
+	 */
+	static List<File> collectInputFiles(List<String> paths) {
+		List<File> files = new ArrayList<File>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				File[] xmlFiles = file.listFiles(new FileFilter() {
+					@Override
+					public boolean accept(File candidate) {
+						return candidate.isFile() && candidate.getName().toLowerCase().endsWith(".xml");
+					}
+				});
+				if (xmlFiles != null) {
+					Arrays.sort(xmlFiles);
+					files.addAll(Arrays.asList(xmlFiles));
+				}
+			} else if (file.isFile()) {
+				files.add(file);
+			} else {
+				LOG.warn("Ignoring {}, it is neither a file nor a directory", path);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Processes all given files in parallel and waits until all of them are done.
+	 *
+	 * @param inputFiles the lists to process
+	 * @return the results, in the order of the given files
+	 * @throws InterruptedException if the calling thread was interrupted while waiting
+	 */
+	public List<BatchResult> process(List<File> inputFiles) throws InterruptedException {
+		// make sure the configuration is loaded once, before the workers start
+		Configuration.getInstance();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, inputFiles.size()), new WorkerThreadFactory());
+		List<Future<BatchResult>> futures = new ArrayList<Future<BatchResult>>();
+		Set<String> outputNames = new HashSet<String>();
+		try {
+			for (final File inputFile : inputFiles) {
+				final String outputName = uniqueName(inputFile.getName(), outputNames);
+				futures.add(executor.submit(new Callable<BatchResult>() {
+					@Override
+					public BatchResult call() {
+						return processFile(inputFile, outputName);
+					}
+				}));
+			}
+
+			List<BatchResult> results = new ArrayList<BatchResult>();
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException ex) {
+					BatchResult result = new BatchResult(inputFiles.get(i));
+					result.setError(String.valueOf(ex.getCause()));
+					results.add(result);
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static String uniqueName(String name, Set<String> usedNames) {
+		String candidate = name;
+		int index = 1;
+		while (!usedNames.add(candidate)) {
+			candidate = index++ + "-" + name;
+		}
+		return candidate;
+	}
+
+	/**
+	 * Opens, validates and saves a single list and writes its report.
+	 *
+	 * @param inputFile the list to process
+	 * @param outputName the file name to use in the output directory
+	 * @return the result
+	 */
+	BatchResult processFile(File inputFile, String outputName) {
+		long start = System.currentTimeMillis();
+		BatchResult result = new BatchResult(inputFile);
+		DocumentLocations locations = null;
+
+		try {
+			TSLComposer composer = new TSLComposer(null);
+			composer.openFile(inputFile);
+			result.setMigrated(composer.isFileMigrated());
+			result.setSignatureRemoved(composer.isSignatureRemovedFromLastList());
+
+			ValidationParameters vp = new ValidationParameters();
+			vp.setListIsClosed(listClosed);
+			vp.setParallel(Configuration.getInstance().isParallelValidation());
+			result.setValidationLogger(composer.startValidation(vp));
+			locations = new DocumentLocations(composer.getTsl());
+
+			File outputFile = new File(outputDirectory, outputName);
+			if (outputFile.getCanonicalFile().equals(inputFile.getCanonicalFile())) {
+				throw new SaveException("Refusing to overwrite the input file " + inputFile.getAbsolutePath());
+			}
+			composer.saveToFile(outputFile);
+			result.setOutputFile(outputFile);
+		} catch (OpenException ex) {
+			result.setError(ex.getMessage());
+		} catch (SaveException ex) {
+			result.setError(ex.getMessage());
+		} catch (Exception ex) {
+			LOG.error("Unable to process " + inputFile.getAbsolutePath(), ex);
+			result.setError(String.valueOf(ex));
+		}
+		result.setDurationMillis(System.currentTimeMillis() - start);
+
+		ValidationReport report = createReport(result, locations);
+		for (ReportFormat format : formats) {
+			File reportFile = new File(outputDirectory, outputName + format.getSuffix());
+			try {
+				writeReport(report, format, reportFile);
+				result.addReportFile(reportFile);
+			} catch (IOException ex) {
+				LOG.error("Unable to write report " + reportFile.getAbsolutePath(), ex);
+			}
+		}
+
+		return result;
+	}
+
+	private static ValidationReport createReport(BatchResult result, DocumentLocations locations) {
+		ValidationReport report = new ValidationReport(result.getInputFile(), result.getValidationLogger(), locations);
+		if (result.getOutputFile() != null) {
+			report.addProperty("savedTo", result.getOutputFile().getAbsolutePath());
+		}
+		report.addProperty("migrated", result.isMigrated());
+		report.addProperty("signatureRemoved", result.isSignatureRemoved());
+		report.setDurationMillis(result.getDurationMillis());
+		report.setError(result.getError());
+		return report;
+	}
+
+	private static void writeReport(ValidationReport report, ReportFormat format, File reportFile) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+		try {
+			format.createWriter(writer).write(report);
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "tlmanager-batch-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.batch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+
+/**
+ * The outcome of processing a single trusted list in batch mode.
+ *
+ *
+ */
+
+public class BatchResult {
+
+	private final File inputFile;
+	private File outputFile;
+	private final List<File> reportFiles = new ArrayList<File>();
+	private ValidationLogger validationLogger;
+	private String error;
+	private boolean migrated;
+	private boolean signatureRemoved;
+	private long durationMillis;
+
+	/**
+	 * Instantiates a new batch result.
+	 *
+	 * @param inputFile the processed file
+	 */
+	public BatchResult(File inputFile) {
+		this.inputFile = inputFile;
+	}
+
+	/**
+	 * @return the processed file
+	 */
+	public File getInputFile() {
+		return inputFile;
+	}
+
+	/**
+	 * @return the file the list was saved to; null if it was not saved
+	 */
+	public File getOutputFile() {
+		return outputFile;
+	}
+
+	/**
+	 * @param outputFile the outputFile to set
+	 */
+	public void setOutputFile(File outputFile) {
+		this.outputFile = outputFile;
+	}
+
+	/**
+	 * @return the files the reports were written to, one per format; empty if no report was written
+	 */
+	public List<File> getReportFiles() {
+		return Collections.unmodifiableList(reportFiles);
+	}
+
+	/**
+	 * @param reportFile a file a report was written to
+	 */
+	public void addReportFile(File reportFile) {
+		reportFiles.add(reportFile);
+	}
+
+	/**
+	 * @return the validation result; null if the list could not be validated
+	 */
+	public ValidationLogger getValidationLogger() {
+		return validationLogger;
+	}
+
+	/**
+	 * @param validationLogger the validationLogger to set
+	 */
+	public void setValidationLogger(ValidationLogger validationLogger) {
+		this.validationLogger = validationLogger;
+	}
+
+	/**
+	 * @return the error that stopped processing; null if there was none
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @param error the error to set
+	 */
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * @return true, if the list was migrated from an older version while opening it
+	 */
+	public boolean isMigrated() {
+		return migrated;
+	}
+
+	/**
+	 * @param migrated the migrated to set
+	 */
+	public void setMigrated(boolean migrated) {
+		this.migrated = migrated;
+	}
+
+	/**
+	 * @return true, if the list contained a signature that was removed while opening it
+	 */
+	public boolean isSignatureRemoved() {
+		return signatureRemoved;
+	}
+
+	/**
+	 * @param signatureRemoved the signatureRemoved to set
+	 */
+	public void setSignatureRemoved(boolean signatureRemoved) {
+		this.signatureRemoved = signatureRemoved;
+	}
+
+	/**
+	 * @return the processing time in milliseconds
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	/**
+	 * @param durationMillis the durationMillis to set
+	 */
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * @return true, if the list could not be opened, validated or saved
+	 */
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	/**
+	 * @return true, if the validation reported at least one error
+	 */
+	public boolean hasValidationErrors() {
+		return (validationLogger != null) && validationLogger.hasErrors();
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.europa.ec.markt.dss.DSSUtils;
+import eu.europa.ec.markt.dss.exception.DSSException;
+import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+
+/**
+ * A bounded cache of decoded certificates, shared by validation and user interface. Entries are keyed by the SHA-256 digest of
+ * the encoded certificate, so equal certificates are decoded only once, no matter which object holds the bytes. The least
+ * recently used entries are dropped when the cache is full.
+ *
+ *
+ */
+
+public final class CertificateCache {
+
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	private static final CertificateCache INSTANCE = new CertificateCache(DEFAULT_CAPACITY);
+
+	private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	};
+
+	private final Map<Key, CertificateToken> tokens;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Instantiates a new certificate cache.
+	 *
+	 * @param capacity the maximum number of certificates to keep
+	 */
+	CertificateCache(final int capacity) {
+		tokens = new LinkedHashMap<Key, CertificateToken>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CertificateToken> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return the cache shared by the whole application
+	 */
+	public static CertificateCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the decoded certificate for the given bytes. The certificate is decoded, if it is not yet cached.
+	 *
+	 * @param encoded the DER encoded certificate
+	 * @return the decoded certificate
+	 * @throws DSSException if the bytes cannot be decoded
+	 */
+	public CertificateToken get(final byte[] encoded) throws DSSException {
+		final CertificateStore store = CertificateStore.getInstance();
+		// interned arrays carry their decoded certificate, which saves computing the digest
+		CertificateToken token = store.getToken(encoded);
+		if (token != null) {
+			hits.incrementAndGet();
+			return token;
+		}
+
+		final Key key = new Key(digest(encoded));
+		synchronized (tokens) {
+			token = tokens.get(key);
+		}
+		if (token != null) {
+			hits.incrementAndGet();
+			store.putToken(key, encoded, token);
+			return token;
+		}
+
+		misses.incrementAndGet();
+		// decode outside of the lock; at worst, two threads decode the same certificate at the same time
+		token = DSSUtils.loadCertificate(encoded);
+		synchronized (tokens) {
+			final CertificateToken cached = tokens.get(key);
+			if (cached != null) {
+				token = cached;
+			} else {
+				tokens.put(key, token);
+			}
+		}
+		store.putToken(key, encoded, token);
+		return token;
+	}
+
+	/**
+	 * Computes the SHA-256 digest of the given bytes.
+	 *
+	 * @param bytes the bytes
+	 * @return the digest
+	 */
+	public static byte[] digest(final byte[] bytes) {
+		final MessageDigest messageDigest = SHA256.get();
+		messageDigest.reset();
+		return messageDigest.digest(bytes);
+	}
+
+	/**
+	 * @return the number of requests that were answered from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of requests that required decoding a certificate
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of cached certificates
+	 */
+	public int size() {
+		synchronized (tokens) {
+			return tokens.size();
+		}
+	}
+
+	/**
+	 * Removes all certificates and resets the counters.
+	 */
+	public void clear() {
+		synchronized (tokens) {
+			tokens.clear();
+		}
+		hits.set(0);
+		misses.set(0);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return "CertificateCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+
+	static final class Key {
+		private final byte[] digest;
+		private final int hashCode;
+
+		Key(byte[] digest) {
+			this.digest = digest;
+			this.hashCode = Arrays.hashCode(digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Key) && Arrays.equals(digest, ((Key) obj).digest);
+		}
+	}
+}
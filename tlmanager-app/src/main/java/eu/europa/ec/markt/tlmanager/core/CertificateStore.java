@@ -0,0 +1,229 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.OtherTSLPointerType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryInstanceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Holds the encoded certificates of all open lists once. Identical certificate bytes, e.g. of a service and its history
+ * instances, are replaced by one canonical array, which also carries the decoded certificate shared by validation and user
+ * interface. The store only references the arrays weakly: a certificate is dropped as soon as no open list refers to it any
+ * more.
+ *
+ *
+ */
+
+public final class CertificateStore {
+
+	private static final CertificateStore INSTANCE = new CertificateStore();
+
+	/** The canonical arrays, by digest; guards all state of the store. */
+	private final Map<CertificateCache.Key, Entry> entries = new HashMap<CertificateCache.Key, Entry>();
+
+	/** The decoded certificates of the canonical arrays; arrays compare by identity, so no digest is needed for a lookup. */
+	private final Map<byte[], CertificateToken> tokens = new WeakHashMap<byte[], CertificateToken>();
+
+	private final ReferenceQueue<byte[]> queue = new ReferenceQueue<byte[]>();
+
+	private final AtomicLong deduplicated = new AtomicLong();
+
+	private CertificateStore() {
+	}
+
+	/**
+	 * @return the store shared by the whole application
+	 */
+	public static CertificateStore getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the canonical array for the given certificate bytes. The given array becomes the canonical one, if the store
+	 * does not hold these bytes yet. The returned array must not be modified.
+	 *
+	 * @param encoded the DER encoded certificate; may be null
+	 * @return the canonical array with the same content, or null
+	 */
+	public byte[] intern(final byte[] encoded) {
+		if (encoded == null) {
+			return null;
+		}
+		final CertificateCache.Key key = new CertificateCache.Key(CertificateCache.digest(encoded));
+		synchronized (entries) {
+			expungeStaleEntries();
+			final Entry entry = entries.get(key);
+			final byte[] canonical = (entry == null) ? null : entry.get();
+			if (canonical != null) {
+				if (canonical != encoded) {
+					deduplicated.incrementAndGet();
+				}
+				return canonical;
+			}
+			entries.put(key, new Entry(encoded, key, queue));
+		}
+		return encoded;
+	}
+
+	/**
+	 * Replaces the certificates of a digital identity by their canonical arrays.
+	 *
+	 * @param digitalIdentity the digital identity; may be null
+	 */
+	public void intern(final DigitalIdentityType digitalIdentity) {
+		if ((digitalIdentity != null) && (digitalIdentity.getX509Certificate() != null)) {
+			digitalIdentity.setX509Certificate(intern(digitalIdentity.getX509Certificate()));
+		}
+	}
+
+	/**
+	 * Replaces the certificates of a list of digital identities by their canonical arrays.
+	 *
+	 * @param digitalIdentities the digital identities; may be null
+	 */
+	public void intern(final DigitalIdentityListType digitalIdentities) {
+		if (digitalIdentities != null) {
+			for (DigitalIdentityType digitalIdentity : digitalIdentities.getDigitalId()) {
+				intern(digitalIdentity);
+			}
+		}
+	}
+
+	/**
+	 * Replaces all certificates of a list, i.e. of pointers, services and history instances, by their canonical arrays.
+	 *
+	 * @param tsl the list
+	 */
+	public void internAll(final TrustStatusListType tsl) {
+		if ((tsl.getSchemeInformation() != null) && (tsl.getSchemeInformation().getPointersToOtherTSL() != null)) {
+			for (OtherTSLPointerType pointer : tsl.getSchemeInformation().getPointersToOtherTSL().getOtherTSLPointer()) {
+				if (pointer.getServiceDigitalIdentities() != null) {
+					for (DigitalIdentityListType digitalIdentities : pointer.getServiceDigitalIdentities().getServiceDigitalIdentity()) {
+						intern(digitalIdentities);
+					}
+				}
+			}
+		}
+		if (tsl.getTrustServiceProviderList() == null) {
+			return;
+		}
+		for (TSPType tsp : tsl.getTrustServiceProviderList().getTrustServiceProvider()) {
+			if (tsp.getTSPServices() == null) {
+				continue;
+			}
+			for (TSPServiceType service : tsp.getTSPServices().getTSPService()) {
+				if (service.getServiceInformation() != null) {
+					intern(service.getServiceInformation().getServiceDigitalIdentity());
+				}
+				if (service.getServiceHistory() != null) {
+					final List<ServiceHistoryInstanceType> histories = service.getServiceHistory().getServiceHistoryInstance();
+					for (ServiceHistoryInstanceType history : histories) {
+						intern(history.getServiceDigitalIdentity());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the decoded certificate of a canonical array.
+	 *
+	 * @param encoded the array
+	 * @return the decoded certificate, or null if the array is not canonical or was not decoded yet
+	 */
+	CertificateToken getToken(final byte[] encoded) {
+		synchronized (entries) {
+			return tokens.get(encoded);
+		}
+	}
+
+	/**
+	 * Attaches the decoded certificate to an array, if it is the canonical array for its digest.
+	 *
+	 * @param key the digest of the array
+	 * @param encoded the array
+	 * @param token the decoded certificate
+	 */
+	void putToken(final CertificateCache.Key key, final byte[] encoded, final CertificateToken token) {
+		synchronized (entries) {
+			final Entry entry = entries.get(key);
+			if ((entry != null) && (entry.get() == encoded)) {
+				tokens.put(encoded, token);
+			}
+		}
+	}
+
+	private void expungeStaleEntries() {
+		Entry stale;
+		while ((stale = (Entry) queue.poll()) != null) {
+			// the key may have been taken by a new array in the meantime
+			if (entries.get(stale.key) == stale) {
+				entries.remove(stale.key);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of certificates that are held
+	 */
+	public int size() {
+		synchronized (entries) {
+			expungeStaleEntries();
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of arrays that were replaced by a canonical array
+	 */
+	public long getDeduplicated() {
+		return deduplicated.get();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return "CertificateStore[size=" + size() + ", deduplicated=" + getDeduplicated() + "]";
+	}
+
+	private static final class Entry extends WeakReference<byte[]> {
+		private final CertificateCache.Key key;
+
+		private Entry(byte[] encoded, CertificateCache.Key key, ReferenceQueue<byte[]> queue) {
+			super(encoded, queue);
+			this.key = key;
+		}
+	}
+}
@@ -81,6 +81,13 @@ public class Configuration {
 	private static final String QUALIFIERS = "tlmanager.tsl.tl.qualifiers";
 	private static final String ASSERT_ATTRIBUTES = "tlmanager.tsl.tl.assertattribute";
 	private static final String HISTORICAL_PERIOD = "tlmanager.common.historicalperiod";
+	private static final String PARALLEL_VALIDATION = "tlmanager.validation.parallel";
+	private static final String URL_CHECK = "tlmanager.validation.urlcheck";
+	private static final String URL_CHECK_THREADS = "tlmanager.validation.urlcheck.threads";
+	private static final String URL_CHECK_PER_HOST = "tlmanager.validation.urlcheck.perhost";
+	private static final String URL_CHECK_TIMEOUT = "tlmanager.validation.urlcheck.timeout";
+	private static final String URL_CHECK_CACHE = "tlmanager.validation.urlcheck.cache";
+	private static final String VALIDATION_JMX = "tlmanager.validation.jmx";
 
 	private static CountryCodes countryCodes;
 	private static CountryCodes memberStatesCodes;
@@ -102,6 +109,13 @@ public class Configuration {
 
 	private static Configuration instance;
 	private BigInteger historicalInformationPeriod = BigInteger.valueOf(65535);
+	private boolean parallelValidation = false;
+	private boolean urlCheck = false;
+	private int urlCheckThreads = 8;
+	private int urlCheckPerHost = 2;
+	private int urlCheckTimeout = 10000;
+	private int urlCheckCacheSeconds = 600;
+	private boolean validationJmx = false;
 	private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA256;
 
 	/**
@@ -109,7 +123,7 @@ public class Configuration {
 	 *
 	 * @return an instance of configuration
 	 */
-	public static Configuration getInstance() {
+	public static synchronized Configuration getInstance() {
 		if (instance == null) {
 			instance = new Configuration();
 		}
@@ -217,6 +231,25 @@ public class Configuration {
 			historicalInformationPeriod = new BigInteger(historical);
 		}
 
+		String parallel = properties.getProperty(PARALLEL_VALIDATION);
+		if (parallel != null) {
+			parallelValidation = Boolean.parseBoolean(parallel.trim());
+		}
+
+		String urlCheckProperty = properties.getProperty(URL_CHECK);
+		if (urlCheckProperty != null) {
+			urlCheck = Boolean.parseBoolean(urlCheckProperty.trim());
+		}
+		urlCheckThreads = parsePositiveInt(URL_CHECK_THREADS, urlCheckThreads);
+		urlCheckPerHost = parsePositiveInt(URL_CHECK_PER_HOST, urlCheckPerHost);
+		urlCheckTimeout = parsePositiveInt(URL_CHECK_TIMEOUT, urlCheckTimeout);
+		urlCheckCacheSeconds = parsePositiveInt(URL_CHECK_CACHE, urlCheckCacheSeconds);
+
+		String jmx = properties.getProperty(VALIDATION_JMX);
+		if (jmx != null) {
+			validationJmx = Boolean.parseBoolean(jmx.trim());
+		}
+
 		String digestAlgorithm = properties.getProperty(DIGEST_ALGORITHM);
 		if (digestAlgorithm != null) {
 			this.digestAlgorithm = DigestAlgorithm.forName(digestAlgorithm.toUpperCase());
@@ -426,6 +459,70 @@ public class Configuration {
 		return digestAlgorithm;
 	}
 
+	/**
+	 * @return true, if independent validation rules shall be executed in parallel
+	 */
+	public boolean isParallelValidation() {
+		return parallelValidation;
+	}
+
+	/**
+	 * @return true, if the validation checks whether the locations and supply points of the list are reachable
+	 */
+	public boolean isUrlCheck() {
+		return urlCheck;
+	}
+
+	/**
+	 * @return the maximum number of URLs that are checked at once
+	 */
+	public int getUrlCheckThreads() {
+		return urlCheckThreads;
+	}
+
+	/**
+	 * @return the maximum number of URLs of the same host that are checked at once
+	 */
+	public int getUrlCheckPerHost() {
+		return urlCheckPerHost;
+	}
+
+	/**
+	 * @return the connect and read timeout of a URL check, in milliseconds
+	 */
+	public int getUrlCheckTimeout() {
+		return urlCheckTimeout;
+	}
+
+	/**
+	 * @return how long the result of a URL check is reused, in seconds
+	 */
+	public int getUrlCheckCacheSeconds() {
+		return urlCheckCacheSeconds;
+	}
+
+	/**
+	 * @return true, if the statistics of the validation rules are published as MBeans
+	 */
+	public boolean isValidationJmx() {
+		return validationJmx;
+	}
+
+	private int parsePositiveInt(String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		if (value != null) {
+			try {
+				int parsed = Integer.parseInt(value.trim());
+				if (parsed > 0) {
+					return parsed;
+				}
+			} catch (NumberFormatException e) {
+				LOG.warn("Invalid value for " + key + ": " + value);
+			}
+		}
+		return defaultValue;
+	}
+
 	public String[] getQualifiers() {
 		return qualifiers;
 	}
@@ -0,0 +1,414 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.generator;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.core.Configuration;
+import eu.europa.ec.markt.tlmanager.core.ObjectFiller;
+import eu.europa.ec.markt.tlmanager.core.QNames;
+import eu.europa.ec.markt.tlmanager.core.exception.FillerException;
+import eu.europa.ec.markt.tlmanager.core.exception.SaveException;
+import eu.europa.ec.markt.tlmanager.util.Util;
+import eu.europa.ec.markt.tsl.jaxb.tsl.AdditionalServiceInformationType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.AddressType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionsListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.InternationalNamesType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.MultiLangNormStringType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.MultiLangStringType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.NonEmptyMultiLangURIListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.NonEmptyMultiLangURIType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ObjectFactory;
+import eu.europa.ec.markt.tsl.jaxb.tsl.PostalAddressType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryInstanceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSLSchemeInformationType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPInformationType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceInformationType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServicesListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustServiceProviderListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Creates synthetic trusted lists of any size, e.g. for benchmarks, memory profiling and load tests. All mandatory fields
+ * are set, so that a generated list passes the mandatory phase of the validation and all rules are executed. The
+ * certificates are real self-signed certificates; they are taken round robin from a pool, whose size is given
+ * separately, because creating keys is slow. Started with {@link #GENERATE_OPTION}, a list is written to a file.
+ *
+ *
+ */
+
+public class TrustedListGenerator {
+
+	/** The command line switch that writes a generated list instead of starting the user interface. */
+	public static final String GENERATE_OPTION = "-generate";
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_FAILURE = 2;
+	public static final int EXIT_USAGE = 3;
+
+	private static final ObjectFactory objectFactoryTSL = new ObjectFactory();
+
+	private static final String LANG = Configuration.LanguageCodes.getEnglishLanguage();
+	private static final String TERRITORY = "BE";
+	private static final String BASE_URI = "http://tl.example.org/";
+
+	private final int providers;
+	private final int servicesPerProvider;
+	private final int historyInstancesPerService;
+	private final int extensionsPerService;
+	private final int certificates;
+
+	/**
+	 * Instantiates a new generator.
+	 *
+	 * @param providers the number of trust service providers
+	 * @param servicesPerProvider the number of services of each provider
+	 * @param historyInstancesPerService the number of history instances of each service
+	 * @param extensionsPerService the number of information extensions of each service and history instance
+	 * @param certificates the number of distinct certificates that are used by the services
+	 */
+	public TrustedListGenerator(int providers, int servicesPerProvider, int historyInstancesPerService, int extensionsPerService, int certificates) {
+		this.providers = providers;
+		this.servicesPerProvider = servicesPerProvider;
+		this.historyInstancesPerService = historyInstancesPerService;
+		this.extensionsPerService = extensionsPerService;
+		this.certificates = Math.max(1, certificates);
+	}
+
+	/**
+	 * Creates a new list.
+	 *
+	 * @return the generated list
+	 * @throws GeneralSecurityException if the certificates cannot be created
+	 * @throws FillerException if the list cannot be completed by the {@code ObjectFiller}
+	 */
+	public TrustStatusListType generate() throws GeneralSecurityException, FillerException {
+		List<SyntheticCertificate> pool = createCertificates();
+
+		TrustStatusListType tsl = objectFactoryTSL.createTrustStatusListType();
+		tsl.setSchemeInformation(createSchemeInformation());
+
+		TrustServiceProviderListType providerList = objectFactoryTSL.createTrustServiceProviderListType();
+		int serviceCount = 0;
+		for (int p = 0; p < providers; p++) {
+			TSPType tsp = objectFactoryTSL.createTSPType();
+			tsp.setTSPInformation(createTSPInformation(p));
+
+			TSPServicesListType services = objectFactoryTSL.createTSPServicesListType();
+			for (int s = 0; s < servicesPerProvider; s++) {
+				services.getTSPService().add(createService(p, s, pool.get(serviceCount++ % pool.size())));
+			}
+			tsp.setTSPServices(services);
+			providerList.getTrustServiceProvider().add(tsp);
+		}
+		tsl.setTrustServiceProviderList(providerList);
+
+		return ObjectFiller.fillAll(tsl);
+	}
+
+	private TSLSchemeInformationType createSchemeInformation() throws FillerException {
+		Configuration.TSL config = Configuration.getInstance().getTSL();
+
+		TSLSchemeInformationType info = objectFactoryTSL.createTSLSchemeInformationType();
+		ObjectFiller.fillTSLSchemeInformationType(info);
+
+		info.setTSLType(config.getTslType());
+		info.setTSLSequenceNumber(BigInteger.ONE);
+		info.getSchemeOperatorName().getName().add(createName("Synthetic Scheme Operator"));
+		fillAddress(info.getSchemeOperatorAddress(), "scheme-operator");
+		info.getSchemeName().getName().add(createName(TERRITORY + ": Synthetic trusted list"));
+		info.getSchemeInformationURI().getURI().add(createURI(BASE_URI + "scheme"));
+		for (String rule : config.getTslSchemeTypeCommunityRules()) {
+			info.getSchemeTypeCommunityRules().getURI().add(createURI(rule));
+		}
+		info.setSchemeTerritory(TERRITORY);
+
+		MultiLangStringType legalNotice = info.getPolicyOrLegalNotice().getTSLLegalNotice().get(0);
+		legalNotice.setLang(LANG);
+		legalNotice.setValue("Synthetic legal notice");
+
+		Calendar calendar = Calendar.getInstance();
+		info.setListIssueDateTime(Util.createXMGregorianCalendar(calendar.getTime()));
+		calendar.add(Calendar.MONTH, 6);
+		info.getNextUpdate().setDateTime(Util.createXMGregorianCalendar(calendar.getTime()));
+		info.getDistributionPoints().getURI().add(BASE_URI + "tl.xml");
+
+		return info;
+	}
+
+	private TSPInformationType createTSPInformation(int p) throws FillerException {
+		TSPInformationType info = objectFactoryTSL.createTSPInformationType();
+		info.setTSPName(objectFactoryTSL.createInternationalNamesType());
+		ObjectFiller.fillTSPInformationType(info);
+
+		info.getTSPName().getName().add(createName("Synthetic Provider " + p));
+		info.getTSPTradeName().getName().add(createName("VAT" + TERRITORY + "-" + p));
+		fillAddress(info.getTSPAddress(), "tsp" + p);
+		info.getTSPInformationURI().getURI().add(createURI(BASE_URI + "tsp" + p));
+
+		return info;
+	}
+
+	private TSPServiceType createService(int p, int s, SyntheticCertificate certificate) throws FillerException {
+		String[] types = Configuration.getInstance().getTL().getTslServiceIdentifier();
+		String[] statuses = Configuration.getInstance().getTL().getTslServiceStatus();
+		String type = types[s % types.length];
+		String name = "Synthetic Service " + p + "." + s;
+
+		TSPServiceInformationType info = objectFactoryTSL.createTSPServiceInformationType();
+		info.setServiceTypeIdentifier(type);
+		ObjectFiller.fillTSPServiceInformationType(info);
+
+		info.getServiceName().getName().clear();
+		info.getServiceName().getName().add(createName(name));
+		DigitalIdentityType digitalId = objectFactoryTSL.createDigitalIdentityType();
+		digitalId.setX509Certificate(certificate.encoded);
+		info.getServiceDigitalIdentity().getDigitalId().add(digitalId);
+		info.setServiceStatus(statuses[0]);
+		info.setStatusStartingTime(Util.createXMGregorianCalendar(yearsAgo(0)));
+		info.getServiceSupplyPoints().getServiceSupplyPoint().add(BASE_URI + "tsp" + p + "/service" + s);
+		info.setServiceInformationExtensions(createExtensions());
+
+		TSPServiceType service = objectFactoryTSL.createTSPServiceType();
+		service.setServiceInformation(info);
+
+		ServiceHistoryType history = objectFactoryTSL.createServiceHistoryType();
+		for (int h = 0; h < historyInstancesPerService; h++) {
+			ServiceHistoryInstanceType instance = objectFactoryTSL.createServiceHistoryInstanceType();
+			ObjectFiller.fillServiceHistoryInstanceType(instance);
+			instance.setServiceTypeIdentifier(type);
+			InternationalNamesType names = objectFactoryTSL.createInternationalNamesType();
+			names.getName().add(createName(name));
+			instance.setServiceName(names);
+			instance.setServiceDigitalIdentity(createHistoricalIdentity(certificate));
+			instance.setServiceStatus(statuses[(h + 1) % statuses.length]);
+			instance.setStatusStartingTime(Util.createXMGregorianCalendar(yearsAgo(h + 1)));
+			instance.setServiceInformationExtensions(createExtensions());
+			history.getServiceHistoryInstance().add(instance);
+		}
+		service.setServiceHistory(history);
+
+		return service;
+	}
+
+	private ExtensionsListType createExtensions() {
+		String[] uris = Configuration.getInstance().getTL().getTslAdditionalServiceInformationURI();
+
+		ExtensionsListType extensions = objectFactoryTSL.createExtensionsListType();
+		for (int e = 0; e < extensionsPerService; e++) {
+			AdditionalServiceInformationType asi = objectFactoryTSL.createAdditionalServiceInformationType();
+			asi.setURI(createURI(uris.length > 0 ? uris[e % uris.length] : BASE_URI + "asi" + e));
+			asi.setInformationValue("Synthetic information " + e);
+
+			ExtensionType extension = objectFactoryTSL.createExtensionType();
+			extension.setCritical(false);
+			extension.getContent().add(new JAXBElement<AdditionalServiceInformationType>(QNames._AdditionalServiceInformation_QNAME,
+					AdditionalServiceInformationType.class, null, asi));
+			extensions.getExtension().add(extension);
+		}
+		return extensions;
+	}
+
+	private DigitalIdentityListType createHistoricalIdentity(SyntheticCertificate certificate) {
+		DigitalIdentityListType identities = objectFactoryTSL.createDigitalIdentityListType();
+
+		DigitalIdentityType subjectName = objectFactoryTSL.createDigitalIdentityType();
+		subjectName.setX509SubjectName(certificate.subjectName);
+		identities.getDigitalId().add(subjectName);
+
+		DigitalIdentityType ski = objectFactoryTSL.createDigitalIdentityType();
+		ski.setX509SKI(certificate.ski);
+		identities.getDigitalId().add(ski);
+
+		return identities;
+	}
+
+	private void fillAddress(AddressType address, String path) {
+		PostalAddressType postal = objectFactoryTSL.createPostalAddressType();
+		postal.setLang(LANG);
+		postal.setStreetAddress("Synthetic Street 1");
+		postal.setLocality("Brussels");
+		postal.setPostalCode("1000");
+		postal.setCountryName(TERRITORY);
+		address.getPostalAddresses().getPostalAddress().add(postal);
+
+		address.getElectronicAddress().getURI().add(createURI("mailto:" + path + "@tl.example.org"));
+		address.getElectronicAddress().getURI().add(createURI(BASE_URI + path));
+	}
+
+	private MultiLangNormStringType createName(String value) {
+		MultiLangNormStringType name = objectFactoryTSL.createMultiLangNormStringType();
+		name.setLang(LANG);
+		name.setValue(value);
+		return name;
+	}
+
+	private NonEmptyMultiLangURIType createURI(String value) {
+		NonEmptyMultiLangURIType uri = objectFactoryTSL.createNonEmptyMultiLangURIType();
+		uri.setLang(LANG);
+		uri.setValue(value);
+		return uri;
+	}
+
+	private static Date yearsAgo(int years) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, -1);
+		calendar.add(Calendar.YEAR, -years);
+		return calendar.getTime();
+	}
+
+	private List<SyntheticCertificate> createCertificates() throws GeneralSecurityException {
+		SecureRandom random = new SecureRandom();
+		KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+		keyPairGenerator.initialize(2048, random);
+
+		List<SyntheticCertificate> pool = new ArrayList<SyntheticCertificate>(certificates);
+		for (int i = 0; i < certificates; i++) {
+			pool.add(new SyntheticCertificate(keyPairGenerator.generateKeyPair(), "CN=Synthetic CA " + i + ",O=Synthetic Provider,C=" + TERRITORY, i));
+		}
+		return pool;
+	}
+
+	/**
+	 * Parses the command line, generates a list and saves it.
+	 *
+	 * @param args the command line arguments, starting with {@link #GENERATE_OPTION}
+	 * @return the exit code
+	 */
+	public static int run(String[] args) {
+		int providers = 10;
+		int services = 10;
+		int history = 2;
+		int extensions = 1;
+		int certificates = 10;
+		File outputFile = null;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (GENERATE_OPTION.equals(arg)) {
+					continue;
+				} else if ("-providers".equals(arg)) {
+					providers = Integer.parseInt(args[++i]);
+				} else if ("-services".equals(arg)) {
+					services = Integer.parseInt(args[++i]);
+				} else if ("-history".equals(arg)) {
+					history = Integer.parseInt(args[++i]);
+				} else if ("-extensions".equals(arg)) {
+					extensions = Integer.parseInt(args[++i]);
+				} else if ("-certificates".equals(arg)) {
+					certificates = Integer.parseInt(args[++i]);
+				} else if (arg.startsWith("-") || (outputFile != null)) {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				} else {
+					outputFile = new File(arg);
+				}
+			}
+			if (outputFile == null) {
+				throw new IllegalArgumentException("No output file given.");
+			}
+		} catch (RuntimeException ex) {
+			// ArrayIndexOutOfBounds, NumberFormat or IllegalArgument
+			System.err.println(ex.getMessage());
+			printUsage();
+			return EXIT_USAGE;
+		}
+
+		try {
+			long start = System.currentTimeMillis();
+			TrustStatusListType tsl = new TrustedListGenerator(providers, services, history, extensions, certificates).generate();
+
+			TSLComposer composer = new TSLComposer(null);
+			composer.openTSL(tsl);
+			composer.saveToFile(outputFile);
+			System.out.println(String.format("%s: %d providers, %d services written in %d ms", outputFile.getName(), providers, providers * services,
+					System.currentTimeMillis() - start));
+			return EXIT_OK;
+		} catch (GeneralSecurityException ex) {
+			System.err.println("Unable to create the certificates: " + ex.getMessage());
+		} catch (FillerException ex) {
+			System.err.println("Unable to generate the list: " + ex.getMessage());
+		} catch (SaveException ex) {
+			System.err.println(ex.getMessage());
+		}
+		return EXIT_FAILURE;
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: " + GENERATE_OPTION + " [-providers n] [-services n] [-history n] [-extensions n] [-certificates n] file");
+		System.err.println("  Writes a synthetic trusted list with n providers, n services per provider, n history instances and");
+		System.err.println("  n extensions per service. The services share a pool of n self-signed certificates.");
+	}
+
+	/**
+	 * A self-signed certificate with the forms it is referenced by in a list.
+	 */
+	private static class SyntheticCertificate {
+		private final byte[] encoded;
+		private final String subjectName;
+		private final byte[] ski;
+
+		SyntheticCertificate(KeyPair keyPair, String subjectName, int serial) throws GeneralSecurityException {
+			try {
+				X500Name subject = new X500Name(subjectName);
+				JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+				X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(subject, BigInteger.valueOf(serial + 1), yearsAgo(10), yearsAgo(-10), subject,
+						keyPair.getPublic());
+				builder.addExtension(Extension.subjectKeyIdentifier, false, extensionUtils.createSubjectKeyIdentifier(keyPair.getPublic()));
+
+				ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+				this.encoded = builder.build(signer).getEncoded();
+				this.subjectName = subjectName;
+				this.ski = extensionUtils.createSubjectKeyIdentifier(keyPair.getPublic()).getKeyIdentifier();
+			} catch (GeneralSecurityException ex) {
+				throw ex;
+			} catch (Exception ex) {
+				throw new GeneralSecurityException("Unable to create a certificate for " + subjectName, ex);
+			}
+		}
+	}
+}
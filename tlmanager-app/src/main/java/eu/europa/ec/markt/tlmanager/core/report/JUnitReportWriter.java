@@ -0,0 +1,195 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import eu.europa.ec.markt.tlmanager.core.validation.RuleStatistics;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tlmanager.util.XmlFactories;
+
+/**
+ * Writes a report as a JUnit XML test suite. Every executed rule is a test case, which fails if the rule reported errors; the
+ * warnings and infos of a rule go to the output of its test case. Messages that do not belong to a rule form the test case
+ * <code>general</code>, and a list that could not be processed gets an erroneous test case <code>processing</code>.
+ *
+ *
+ */
+
+public class JUnitReportWriter extends ValidationReportWriter {
+
+	private static final String CLASS_NAME = "tlmanager.validation";
+	private static final String GENERAL = "general";
+
+	/**
+	 * Instantiates a new JUnit report writer.
+	 *
+	 * @param out receives the report
+	 */
+	public JUnitReportWriter(Writer out) {
+		super(out);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void write(ValidationReport report) throws IOException {
+		// the counts are attributes of the suite and of each test case, so the messages are grouped by rule first
+		Map<String, RuleStatistics> statistics = new LinkedHashMap<String, RuleStatistics>();
+		Map<String, List<ValidationLogger.Message>> messagesByRule = new LinkedHashMap<String, List<ValidationLogger.Message>>();
+		for (RuleStatistics ruleStatistics : report.getStatistics()) {
+			statistics.put(ruleStatistics.getRuleId(), ruleStatistics);
+			messagesByRule.put(ruleStatistics.getRuleId(), new ArrayList<ValidationLogger.Message>());
+		}
+		for (ValidationLogger.Message message : report.getMessages()) {
+			String ruleId = (message.getRuleId() == null) ? GENERAL : message.getRuleId();
+			List<ValidationLogger.Message> messages = messagesByRule.get(ruleId);
+			if (messages == null) {
+				messages = new ArrayList<ValidationLogger.Message>();
+				messagesByRule.put(ruleId, messages);
+			}
+			messages.add(message);
+		}
+		int failures = 0;
+		for (List<ValidationLogger.Message> messages : messagesByRule.values()) {
+			if (count(messages, ValidationLogger.LEVEL.Error) > 0) {
+				failures++;
+			}
+		}
+		boolean failed = report.getError() != null;
+
+		try {
+			XMLStreamWriter xml = XmlFactories.getXMLOutputFactory().createXMLStreamWriter(out);
+			xml.writeStartDocument("UTF-8", "1.0");
+			xml.writeCharacters("\n");
+			xml.writeStartElement("testsuite");
+			xml.writeAttribute("name", report.getFile().getAbsolutePath());
+			xml.writeAttribute("tests", String.valueOf(messagesByRule.size() + (failed ? 1 : 0)));
+			xml.writeAttribute("failures", String.valueOf(failures));
+			xml.writeAttribute("errors", failed ? "1" : "0");
+			xml.writeAttribute("skipped", "0");
+			xml.writeAttribute("time", seconds(report.getDurationMillis() * 1000000L));
+
+			if (!report.getProperties().isEmpty()) {
+				xml.writeCharacters("\n  ");
+				xml.writeStartElement("properties");
+				for (Map.Entry<String, Object> property : report.getProperties().entrySet()) {
+					xml.writeCharacters("\n    ");
+					xml.writeEmptyElement("property");
+					xml.writeAttribute("name", property.getKey());
+					xml.writeAttribute("value", String.valueOf(property.getValue()));
+				}
+				xml.writeCharacters("\n  ");
+				xml.writeEndElement();
+			}
+
+			if (failed) {
+				xml.writeCharacters("\n  ");
+				xml.writeStartElement("testcase");
+				xml.writeAttribute("classname", CLASS_NAME);
+				xml.writeAttribute("name", "processing");
+				xml.writeEmptyElement("error");
+				xml.writeAttribute("message", report.getError());
+				xml.writeEndElement();
+			}
+
+			for (Map.Entry<String, List<ValidationLogger.Message>> entry : messagesByRule.entrySet()) {
+				writeTestCase(xml, report, entry.getKey(), statistics.get(entry.getKey()), entry.getValue());
+			}
+
+			xml.writeCharacters("\n");
+			xml.writeEndElement();
+			xml.writeCharacters("\n");
+			xml.writeEndDocument();
+			xml.flush();
+			xml.close();
+		} catch (XMLStreamException ex) {
+			throw new IOException("Unable to write the JUnit report: " + ex.getMessage(), ex);
+		}
+		out.flush();
+	}
+
+	private void writeTestCase(XMLStreamWriter xml, ValidationReport report, String ruleId, RuleStatistics statistics,
+			List<ValidationLogger.Message> messages) throws XMLStreamException {
+		xml.writeCharacters("\n  ");
+		xml.writeStartElement("testcase");
+		xml.writeAttribute("classname", (statistics == null) ? CLASS_NAME : CLASS_NAME + "." + statistics.getPhase());
+		xml.writeAttribute("name", ruleId);
+		xml.writeAttribute("time", seconds((statistics == null) ? 0 : statistics.getNanos()));
+
+		int errors = count(messages, ValidationLogger.LEVEL.Error);
+		if (errors > 0) {
+			xml.writeCharacters("\n    ");
+			xml.writeStartElement("failure");
+			xml.writeAttribute("type", ValidationLogger.LEVEL.Error.toString());
+			xml.writeAttribute("message", errors + " error(s)");
+			xml.writeCharacters("\n");
+			writeMessages(xml, report, messages, true);
+			xml.writeCharacters("    ");
+			xml.writeEndElement();
+		}
+		if (messages.size() > errors) {
+			xml.writeCharacters("\n    ");
+			xml.writeStartElement("system-out");
+			xml.writeCharacters("\n");
+			writeMessages(xml, report, messages, false);
+			xml.writeCharacters("    ");
+			xml.writeEndElement();
+		}
+
+		if (!messages.isEmpty()) {
+			xml.writeCharacters("\n  ");
+		}
+		xml.writeEndElement();
+	}
+
+	private static void writeMessages(XMLStreamWriter xml, ValidationReport report, List<ValidationLogger.Message> messages,
+			boolean errors) throws XMLStreamException {
+		for (ValidationLogger.Message message : messages) {
+			if ((message.getLevel() == ValidationLogger.LEVEL.Error) == errors) {
+				String location = report.getLocation(message);
+				xml.writeCharacters(message.getLevel() + ((location == null) ? "" : " " + location) + ": " + message.getMessage() + "\n");
+			}
+		}
+	}
+
+	private static int count(List<ValidationLogger.Message> messages, ValidationLogger.LEVEL level) {
+		int count = 0;
+		for (ValidationLogger.Message message : messages) {
+			if (message.getLevel() == level) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static String seconds(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import eu.europa.ec.markt.tlmanager.core.validation.RuleStatistics;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+
+/**
+ * Writes a report as a plain JSON document: the facts about the list, one entry per message with level, rule, location and
+ * text, and the statistics of every executed rule.
+ *
+ *
+ */
+
+public class JsonReportWriter extends ValidationReportWriter {
+
+	/**
+	 * Instantiates a new JSON report writer.
+	 *
+	 * @param out receives the report
+	 */
+	public JsonReportWriter(Writer out) {
+		super(out);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void write(ValidationReport report) throws IOException {
+		out.write("{\n");
+		out.write("  \"file\": " + quote(report.getFile().getAbsolutePath()) + ",\n");
+		for (Map.Entry<String, Object> property : report.getProperties().entrySet()) {
+			out.write("  " + quote(property.getKey()) + ": " + value(property.getValue()) + ",\n");
+		}
+		out.write("  \"durationMillis\": " + report.getDurationMillis() + ",\n");
+		if (report.getError() != null) {
+			out.write("  \"error\": " + quote(report.getError()) + ",\n");
+		}
+		out.write("  \"hasErrors\": " + report.hasErrors() + ",\n");
+		out.write("  \"hasWarnings\": " + report.hasWarnings() + ",\n");
+
+		out.write("  \"messages\": [");
+		boolean first = true;
+		for (ValidationLogger.Message message : report.getMessages()) {
+			out.write(first ? "\n" : ",\n");
+			out.write("    {\"level\": " + quote(String.valueOf(message.getLevel())) + ", \"rule\": " + quote(message.getRuleId())
+					+ ", \"location\": " + quote(report.getLocation(message)) + ", \"message\": " + quote(message.getMessage()) + "}");
+			first = false;
+		}
+		out.write(first ? "],\n" : "\n  ],\n");
+
+		out.write("  \"rules\": [");
+		first = true;
+		for (RuleStatistics statistics : report.getStatistics()) {
+			out.write(first ? "\n" : ",\n");
+			out.write("    {\"rule\": " + quote(statistics.getRuleId()) + ", \"phase\": " + quote(String.valueOf(statistics.getPhase()))
+					+ ", \"executions\": " + statistics.getExecutions() + ", \"nanos\": " + statistics.getNanos() + ", \"visitedObjects\": "
+					+ statistics.getVisitedObjects() + ", \"errors\": " + statistics.getMessages(ValidationLogger.LEVEL.Error)
+					+ ", \"warnings\": " + statistics.getMessages(ValidationLogger.LEVEL.Warning) + ", \"infos\": "
+					+ statistics.getMessages(ValidationLogger.LEVEL.Info) + "}");
+			first = false;
+		}
+		out.write(first ? "]\n" : "\n  ]\n");
+		out.write("}\n");
+		out.flush();
+	}
+
+	private static String value(Object value) {
+		if ((value instanceof Number) || (value instanceof Boolean)) {
+			return value.toString();
+		}
+		return quote((value == null) ? null : value.toString());
+	}
+
+	/**
+	 * Quotes a string for JSON.
+	 *
+	 * @param value the string; may be null
+	 * @return the quoted and escaped string, or <code>null</code>
+	 */
+	static String quote(String value) {
+		if (value == null) {
+			return "null";
+		}
+		StringBuilder sb = new StringBuilder(value.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		sb.append('"');
+		return sb.toString();
+	}
+}
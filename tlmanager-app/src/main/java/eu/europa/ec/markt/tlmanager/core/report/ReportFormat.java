@@ -0,0 +1,87 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.Writer;
+
+/**
+ * The formats a {@code ValidationReport} can be written in.
+ *
+ *
+ */
+
+public enum ReportFormat {
+
+	/** A plain JSON document with all messages and the statistics of the rules. */
+	JSON("-report.json"),
+
+	/** A JUnit XML test suite with one test case per rule, as understood by most build servers. */
+	JUNIT("-report.xml"),
+
+	/** A SARIF 2.1.0 log, as understood by code scanning tools. */
+	SARIF("-report.sarif");
+
+	private final String suffix;
+
+	private ReportFormat(String suffix) {
+		this.suffix = suffix;
+	}
+
+	/**
+	 * @return the suffix that is appended to the name of the list to name its report
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
+	/**
+	 * Creates a writer for this format.
+	 *
+	 * @param out receives the report
+	 * @return the writer
+	 */
+	public ValidationReportWriter createWriter(Writer out) {
+		switch (this) {
+			case JUNIT:
+				return new JUnitReportWriter(out);
+			case SARIF:
+				return new SarifReportWriter(out);
+			default:
+				return new JsonReportWriter(out);
+		}
+	}
+
+	/**
+	 * Gets a format by its name, ignoring the case.
+	 *
+	 * @param name the name, e.g. <code>json</code>
+	 * @return the format
+	 * @throws IllegalArgumentException if there is no such format
+	 */
+	public static ReportFormat forName(String name) {
+		for (ReportFormat format : values()) {
+			if (format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Unknown report format " + name);
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import eu.europa.ec.markt.tlmanager.core.validation.RuleStatistics;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+
+/**
+ * Writes a report as a SARIF 2.1.0 log with a single run. Every message is a result; its location is the list file together
+ * with the XPath-like location of the object the message refers to, as a logical location.
+ *
+ *
+ */
+
+public class SarifReportWriter extends ValidationReportWriter {
+
+	private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+	private static final String TOOL_NAME = "TL Manager";
+
+	/**
+	 * Instantiates a new SARIF report writer.
+	 *
+	 * @param out receives the report
+	 */
+	public SarifReportWriter(Writer out) {
+		super(out);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void write(ValidationReport report) throws IOException {
+		Set<String> ruleIds = new LinkedHashSet<String>();
+		for (RuleStatistics statistics : report.getStatistics()) {
+			ruleIds.add(statistics.getRuleId());
+		}
+		List<ValidationLogger.Message> messages = report.getMessages();
+		for (ValidationLogger.Message message : messages) {
+			if (message.getRuleId() != null) {
+				ruleIds.add(message.getRuleId());
+			}
+		}
+		String uri = JsonReportWriter.quote(report.getFile().getAbsoluteFile().toURI().toString());
+
+		out.write("{\n");
+		out.write("  \"$schema\": " + JsonReportWriter.quote(SCHEMA) + ",\n");
+		out.write("  \"version\": \"2.1.0\",\n");
+		out.write("  \"runs\": [\n");
+		out.write("    {\n");
+		out.write("      \"tool\": {\"driver\": {\"name\": " + JsonReportWriter.quote(TOOL_NAME) + ", \"rules\": [");
+		boolean first = true;
+		for (String ruleId : ruleIds) {
+			out.write((first ? "" : ", ") + "{\"id\": " + JsonReportWriter.quote(ruleId) + "}");
+			first = false;
+		}
+		out.write("]}},\n");
+
+		out.write("      \"invocations\": [{\"executionSuccessful\": " + (report.getError() == null));
+		if (report.getError() != null) {
+			out.write(", \"toolExecutionNotifications\": [{\"level\": \"error\", \"message\": {\"text\": "
+					+ JsonReportWriter.quote(report.getError()) + "}}]");
+		}
+		out.write("}],\n");
+
+		out.write("      \"artifacts\": [{\"location\": {\"uri\": " + uri + "}}],\n");
+		out.write("      \"results\": [");
+		first = true;
+		for (ValidationLogger.Message message : messages) {
+			out.write(first ? "\n" : ",\n");
+			out.write("        {");
+			if (message.getRuleId() != null) {
+				out.write("\"ruleId\": " + JsonReportWriter.quote(message.getRuleId()) + ", ");
+			}
+			out.write("\"level\": " + JsonReportWriter.quote(level(message.getLevel())) + ", \"message\": {\"text\": "
+					+ JsonReportWriter.quote(message.getMessage()) + "}, ");
+			out.write("\"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": " + uri + ", \"index\": 0}}");
+			String location = report.getLocation(message);
+			if (location != null) {
+				out.write(", \"logicalLocations\": [{\"fullyQualifiedName\": " + JsonReportWriter.quote(location) + ", \"kind\": \"element\"}]");
+			}
+			out.write("}]}");
+			first = false;
+		}
+		out.write(first ? "]\n" : "\n      ]\n");
+		out.write("    }\n");
+		out.write("  ]\n");
+		out.write("}\n");
+		out.flush();
+	}
+
+	private static String level(ValidationLogger.LEVEL level) {
+		if (level == ValidationLogger.LEVEL.Error) {
+			return "error";
+		} else if (level == ValidationLogger.LEVEL.Warning) {
+			return "warning";
+		}
+		return "note";
+	}
+}
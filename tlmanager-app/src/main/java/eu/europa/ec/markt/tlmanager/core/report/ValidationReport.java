@@ -0,0 +1,158 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.europa.ec.markt.tlmanager.core.validation.DocumentLocations;
+import eu.europa.ec.markt.tlmanager.core.validation.RuleStatistics;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+
+/**
+ * The result of validating one list, as it is written by a {@code ValidationReportWriter}: the messages and rule statistics
+ * of the validation, the locations of the objects the messages refer to and some facts about the processing of the list.
+ *
+ *
+ */
+
+public class ValidationReport {
+
+	private final File file;
+	private final ValidationLogger logger;
+	private final DocumentLocations locations;
+	private final Map<String, Object> properties = new LinkedHashMap<String, Object>();
+	private String error;
+	private long durationMillis;
+
+	/**
+	 * Instantiates a new validation report.
+	 *
+	 * @param file the validated list
+	 * @param logger the result of the validation; null if the list could not be validated
+	 * @param locations the locations of the objects of the list; null if unknown
+	 */
+	public ValidationReport(File file, ValidationLogger logger, DocumentLocations locations) {
+		this.file = file;
+		this.logger = logger;
+		this.locations = locations;
+	}
+
+	/**
+	 * Adds a fact about the processing of the list, e.g. whether it was migrated. Facts are written in the order they were
+	 * added.
+	 *
+	 * @param name the name of the fact
+	 * @param value a string, number or boolean
+	 */
+	public void addProperty(String name, Object value) {
+		properties.put(name, value);
+	}
+
+	/**
+	 * @return the facts about the processing of the list
+	 */
+	public Map<String, Object> getProperties() {
+		return Collections.unmodifiableMap(properties);
+	}
+
+	/**
+	 * @return the validated list
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the messages of the validation; empty if the list could not be validated
+	 */
+	public List<ValidationLogger.Message> getMessages() {
+		if (logger == null) {
+			return Collections.emptyList();
+		}
+		return logger.getMessages();
+	}
+
+	/**
+	 * @return the statistics of the executed rules; empty if the list could not be validated
+	 */
+	public List<RuleStatistics> getStatistics() {
+		if (logger == null) {
+			return Collections.emptyList();
+		}
+		return logger.getStatistics();
+	}
+
+	/**
+	 * Gets the location in the list of the object a message refers to.
+	 *
+	 * @param message the message
+	 * @return the XPath-like location, or null for messages about the list as a whole
+	 */
+	public String getLocation(ValidationLogger.Message message) {
+		return (locations == null) ? null : locations.getLocation(message.getParentPanelObject());
+	}
+
+	/**
+	 * @return true, if the validation reported errors
+	 */
+	public boolean hasErrors() {
+		return (logger != null) && logger.hasErrors();
+	}
+
+	/**
+	 * @return true, if the validation reported warnings
+	 */
+	public boolean hasWarnings() {
+		return (logger != null) && logger.hasWarnings();
+	}
+
+	/**
+	 * @return the reason why the list could not be processed, or null
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @param error the reason why the list could not be processed
+	 */
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * @return the time it took to process the list
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	/**
+	 * @param durationMillis the time it took to process the list
+	 */
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@code ValidationReport} in a machine readable format. The messages are written one by one, as they are read from
+ * the report, so no representation of the whole report is built in memory.
+ *
+ *
+ */
+
+public abstract class ValidationReportWriter {
+
+	protected final Writer out;
+
+	/**
+	 * Instantiates a new report writer.
+	 *
+	 * @param out receives the report; it is flushed, but not closed
+	 */
+	protected ValidationReportWriter(Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Writes a complete report.
+	 *
+	 * @param report the report
+	 * @throws IOException if the report could not be written
+	 */
+	public abstract void write(ValidationReport report) throws IOException;
+}
@@ -277,7 +277,7 @@ public class SignatureManager {
 	 * @return the list
 	 */
 	public List<ValidationLogger.Message> retrieveValidationMessages() {
-		return validationLogger.getValidationMessages();
+		return validationLogger.getMessages();
 	}
 
 	/**
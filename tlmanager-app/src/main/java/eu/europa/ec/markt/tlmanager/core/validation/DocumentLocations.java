@@ -0,0 +1,130 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.JAXBElement;
+
+import eu.europa.ec.markt.tlmanager.core.QNames;
+import eu.europa.ec.markt.tsl.jaxb.ecc.QualificationElementType;
+import eu.europa.ec.markt.tsl.jaxb.ecc.QualificationsType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionsListType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.OtherTSLPointerType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryInstanceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * The XPath-like locations of all objects of a list that validation messages may refer to, e.g.
+ * <code>/TrustServiceStatusList/TrustServiceProviderList/TrustServiceProvider[2]/TSPServices/TSPService[1]</code>. The
+ * locations are computed once, in a single walk over the list, and looked up by identity.
+ *
+ *
+ */
+
+public class DocumentLocations {
+
+	private static final String ROOT = "/TrustServiceStatusList";
+
+	private final Map<Object, String> locations = new IdentityHashMap<Object, String>();
+
+	/**
+	 * Computes the locations of the objects of a list.
+	 *
+	 * @param tsl the list; may be null, then no object has a location
+	 */
+	public DocumentLocations(TrustStatusListType tsl) {
+		if (tsl == null) {
+			return;
+		}
+		locations.put(tsl, ROOT);
+		if ((tsl.getSchemeInformation() != null) && (tsl.getSchemeInformation().getPointersToOtherTSL() != null)) {
+			final List<OtherTSLPointerType> pointers = tsl.getSchemeInformation().getPointersToOtherTSL().getOtherTSLPointer();
+			for (int i = 0; i < pointers.size(); i++) {
+				locations.put(pointers.get(i), ROOT + "/SchemeInformation/PointersToOtherTSL/OtherTSLPointer[" + (i + 1) + "]");
+			}
+		}
+		if (tsl.getTrustServiceProviderList() != null) {
+			final List<TSPType> tsps = tsl.getTrustServiceProviderList().getTrustServiceProvider();
+			for (int i = 0; i < tsps.size(); i++) {
+				final String tspLocation = ROOT + "/TrustServiceProviderList/TrustServiceProvider[" + (i + 1) + "]";
+				locations.put(tsps.get(i), tspLocation);
+				if (tsps.get(i).getTSPServices() != null) {
+					final List<TSPServiceType> services = tsps.get(i).getTSPServices().getTSPService();
+					for (int j = 0; j < services.size(); j++) {
+						addService(services.get(j), tspLocation + "/TSPServices/TSPService[" + (j + 1) + "]");
+					}
+				}
+			}
+		}
+	}
+
+	private void addService(final TSPServiceType service, final String serviceLocation) {
+		locations.put(service, serviceLocation);
+		if (service.getServiceInformation() != null) {
+			addExtensions(service.getServiceInformation().getServiceInformationExtensions(), serviceLocation
+					+ "/ServiceInformation/ServiceInformationExtensions");
+		}
+		if (service.getServiceHistory() != null) {
+			final List<ServiceHistoryInstanceType> histories = service.getServiceHistory().getServiceHistoryInstance();
+			for (int i = 0; i < histories.size(); i++) {
+				final String historyLocation = serviceLocation + "/ServiceHistory/ServiceHistoryInstance[" + (i + 1) + "]";
+				locations.put(histories.get(i), historyLocation);
+				addExtensions(histories.get(i).getServiceInformationExtensions(), historyLocation + "/ServiceInformationExtensions");
+			}
+		}
+	}
+
+	private void addExtensions(final ExtensionsListType extensionsList, final String extensionsLocation) {
+		if (extensionsList == null) {
+			return;
+		}
+		locations.put(extensionsList, extensionsLocation);
+		final List<ExtensionType> extensions = extensionsList.getExtension();
+		for (int i = 0; i < extensions.size(); i++) {
+			for (Object content : extensions.get(i).getContent()) {
+				if ((content instanceof JAXBElement<?>) && QNames._Qualifications_QNAME.equals(((JAXBElement<?>) content).getName())) {
+					final List<QualificationElementType> elements = ((QualificationsType) ((JAXBElement<?>) content).getValue())
+							.getQualificationElement();
+					for (int j = 0; j < elements.size(); j++) {
+						locations.put(elements.get(j), extensionsLocation + "/Extension[" + (i + 1) + "]/Qualifications/QualificationElement["
+								+ (j + 1) + "]");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the location of an object.
+	 *
+	 * @param object the object a message refers to
+	 * @return the location, or null if the object is not part of the list
+	 */
+	public String getLocation(Object object) {
+		return (object == null) ? null : locations.get(object);
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups the objects checked by a rule by a key, e.g. to find all services sharing a public key or all objects referring to
+ * the same URL. Keys keep the order in which they were first added. A key that occurs once costs no list of its own, so
+ * large lists with mostly unique keys can be indexed cheaply.
+ *
+ * @param <K> the type of the keys; must implement equals and hashCode
+ * @param <V> the type of the indexed objects
+ *
+ *
+ */
+
+class KeyIndex<K, V> {
+
+	private final Map<K, List<V>> index;
+
+	private int duplicateKeys;
+
+	/**
+	 * Instantiates an empty index.
+	 *
+	 * @param expectedKeys the expected number of keys
+	 */
+	KeyIndex(int expectedKeys) {
+		index = new LinkedHashMap<K, List<V>>(Math.max(16, (int) (expectedKeys / 0.75f) + 1));
+	}
+
+	/**
+	 * Adds an object under the given key.
+	 *
+	 * @param key the key
+	 * @param value the object
+	 */
+	void add(K key, V value) {
+		final List<V> values = index.get(key);
+		if (values == null) {
+			index.put(key, Collections.singletonList(value));
+		} else if (values.size() == 1) {
+			final List<V> grown = new ArrayList<V>(2);
+			grown.add(values.get(0));
+			grown.add(value);
+			index.put(key, grown);
+			duplicateKeys++;
+		} else {
+			values.add(value);
+		}
+	}
+
+	/**
+	 * @param key the key
+	 * @return the objects added under the key, in the order they were added; empty if there are none
+	 */
+	List<V> get(K key) {
+		final List<V> values = index.get(key);
+		if (values == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * @return the keys, in the order they were first added
+	 */
+	Set<K> keySet() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	/**
+	 * @return the groups of objects that share their key with at least one other object
+	 */
+	List<List<V>> getDuplicates() {
+		final List<List<V>> duplicates = new ArrayList<List<V>>(duplicateKeys);
+		if (duplicateKeys > 0) {
+			for (List<V> values : index.values()) {
+				if (values.size() > 1) {
+					duplicates.add(Collections.unmodifiableList(values));
+				}
+			}
+		}
+		return duplicates;
+	}
+
+	/**
+	 * @return true, if nothing was added
+	 */
+	boolean isEmpty() {
+		return index.isEmpty();
+	}
+
+	/**
+	 * @return the number of distinct keys
+	 */
+	int size() {
+		return index.size();
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.util.List;
+
+/**
+ * How long a validation rule took, how many objects it checked and how many messages it reported, for one validation. A rule
+ * that is executed for several chunks of services in parallel is counted as one execution; the times, objects and messages of
+ * the chunks are summed up.
+ *
+ *
+ */
+
+public class RuleStatistics {
+
+	private final String ruleId;
+	private final ValidationRule.Phase phase;
+	private int executions;
+	private long nanos;
+	private int visitedObjects;
+	private int infos;
+	private int warnings;
+	private int errors;
+
+	/**
+	 * Instantiates empty statistics of a rule.
+	 *
+	 * @param rule the rule
+	 */
+	RuleStatistics(ValidationRule rule) {
+		this.ruleId = rule.getId();
+		this.phase = rule.getPhase();
+	}
+
+	/**
+	 * Instantiates a copy of other statistics.
+	 *
+	 * @param other the statistics to copy
+	 */
+	RuleStatistics(RuleStatistics other) {
+		this.ruleId = other.ruleId;
+		this.phase = other.phase;
+		add(other);
+	}
+
+	/**
+	 * Counts one execution of the rule.
+	 */
+	void countExecution() {
+		executions++;
+	}
+
+	/**
+	 * Adds what the rule did for one execution, or for one chunk of services of an execution.
+	 *
+	 * @param executionNanos the time the execution took, in nanoseconds
+	 * @param objects the number of objects the rule checked
+	 * @param messages the messages the rule reported
+	 */
+	void add(long executionNanos, int objects, List<ValidationLogger.Message> messages) {
+		nanos += executionNanos;
+		visitedObjects += objects;
+		for (ValidationLogger.Message message : messages) {
+			switch (message.getLevel()) {
+			case Error:
+				errors++;
+				break;
+			case Warning:
+				warnings++;
+				break;
+			default:
+				infos++;
+			}
+		}
+	}
+
+	/**
+	 * Adds the executions of other statistics of the same rule.
+	 *
+	 * @param other the statistics to add
+	 */
+	void add(RuleStatistics other) {
+		executions += other.executions;
+		nanos += other.nanos;
+		visitedObjects += other.visitedObjects;
+		infos += other.infos;
+		warnings += other.warnings;
+		errors += other.errors;
+	}
+
+	/**
+	 * @return the id of the rule
+	 */
+	public String getRuleId() {
+		return ruleId;
+	}
+
+	/**
+	 * @return the phase the rule belongs to
+	 */
+	public ValidationRule.Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * @return how often the rule was executed, i.e. once per validation, regardless of the chunks of services
+	 */
+	public int getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * @return the time all executions took, in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return the number of objects of the scope of the rule (the list and its pointers, the providers or the services) that
+	 *         were checked
+	 */
+	public int getVisitedObjects() {
+		return visitedObjects;
+	}
+
+	/**
+	 * @return the number of reported messages
+	 */
+	public int getMessages() {
+		return infos + warnings + errors;
+	}
+
+	/**
+	 * Gets the number of reported messages of one level.
+	 *
+	 * @param level the level
+	 * @return the number of messages
+	 */
+	public int getMessages(ValidationLogger.LEVEL level) {
+		switch (level) {
+		case Error:
+			return errors;
+		case Warning:
+			return warnings;
+		default:
+			return infos;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return String.format("%-45s %-9s %10.2f ms %7d objects %6d errors %6d warnings", ruleId, phase, nanos / 1000000d, visitedObjects, errors, warnings);
+	}
+}
@@ -0,0 +1,357 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.tlmanager.core.Configuration;
+
+/**
+ * Checks whether http and https URLs are reachable. Many URLs are checked concurrently, but never more than a fixed
+ * number at once and never more than a fixed number per host. The checks of a host are queued, and a check is only
+ * handed to a worker once its host is below the limit, so that a busy host never keeps the workers from checking other
+ * hosts. Every check is bounded by timeouts, and results are cached for a while, so that validating a list repeatedly
+ * does not contact the same servers again.
+ *
+ *
+ */
+
+public class URLReachabilityChecker {
+
+	private static final Logger LOG = LoggerFactory.getLogger(URLReachabilityChecker.class);
+
+	private static URLReachabilityChecker instance;
+
+	private final ExecutorService executor;
+	private final int maxPerHost;
+	private final int timeoutMillis;
+	private final long cacheMillis;
+
+	// the queued checks by host; guarded by itself
+	private final Map<String, HostQueue> hostQueues = new HashMap<String, HostQueue>();
+	private final Map<String, Result> cache = new ConcurrentHashMap<String, Result>();
+
+	/**
+	 * Instantiates a new checker.
+	 *
+	 * @param threads the maximum number of URLs that are checked at once
+	 * @param maxPerHost the maximum number of URLs of the same host that are checked at once
+	 * @param timeoutMillis the connect and read timeout of a single check, in milliseconds
+	 * @param cacheMillis how long a result is reused, in milliseconds
+	 */
+	public URLReachabilityChecker(int threads, int maxPerHost, int timeoutMillis, long cacheMillis) {
+		this.maxPerHost = maxPerHost;
+		this.timeoutMillis = timeoutMillis;
+		this.cacheMillis = cacheMillis;
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "url-check-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * @return the checker configured by {@code Configuration}
+	 */
+	public static synchronized URLReachabilityChecker getInstance() {
+		if (instance == null) {
+			Configuration configuration = Configuration.getInstance();
+			instance = new URLReachabilityChecker(configuration.getUrlCheckThreads(), configuration.getUrlCheckPerHost(),
+					configuration.getUrlCheckTimeout(), configuration.getUrlCheckCacheSeconds() * 1000L);
+		}
+		return instance;
+	}
+
+	/**
+	 * Checks a single URL.
+	 *
+	 * @param url the url
+	 * @return the result
+	 */
+	public Result check(String url) {
+		return check(Collections.singleton(url)).get(url);
+	}
+
+	/**
+	 * Checks all given URLs concurrently and waits for the results. URLs that are not http or https are not checked and
+	 * are missing from the result.
+	 *
+	 * @param urls the urls
+	 * @return the results by url, in the order of the given urls
+	 */
+	public Map<String, Result> check(Collection<String> urls) {
+		evictExpired();
+
+		Map<String, Result> results = new LinkedHashMap<String, Result>();
+		Map<String, Future<Result>> pending = new LinkedHashMap<String, Future<Result>>();
+		for (String url : new LinkedHashSet<String>(urls)) {
+			if (!isCheckable(url)) {
+				continue;
+			}
+			Result cached = cache.get(url);
+			if ((cached != null) && !cached.isExpired(cacheMillis)) {
+				results.put(url, cached);
+				continue;
+			}
+			URL target;
+			try {
+				target = new URL(url.trim());
+			} catch (MalformedURLException e) {
+				results.put(url, new Result(-1, e.getMessage()));
+				continue;
+			}
+			pending.put(url, enqueue(target.getHost().toLowerCase(), new Check(target)));
+		}
+
+		for (Map.Entry<String, Future<Result>> entry : pending.entrySet()) {
+			Result result;
+			try {
+				result = entry.getValue().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel(pending.values());
+				break;
+			} catch (ExecutionException e) {
+				result = new Result(-1, String.valueOf(e.getCause()));
+			}
+			cache.put(entry.getKey(), result);
+			results.put(entry.getKey(), result);
+		}
+		return results;
+	}
+
+	private void cancel(Collection<Future<Result>> futures) {
+		for (Future<Result> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Forgets all results.
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+
+	/**
+	 * Forgets the results that may not be reused anymore.
+	 */
+	private void evictExpired() {
+		for (Iterator<Result> iterator = cache.values().iterator(); iterator.hasNext();) {
+			if (iterator.next().isExpired(cacheMillis)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of cached results
+	 */
+	int getCachedCount() {
+		return cache.size();
+	}
+
+	private static boolean isCheckable(String url) {
+		if (url == null) {
+			return false;
+		}
+		String lowerCase = url.trim().toLowerCase();
+		return lowerCase.startsWith("http://") || lowerCase.startsWith("https://");
+	}
+
+	/**
+	 * Queues a check of the given host and starts it, if the host is below its limit.
+	 */
+	private Future<Result> enqueue(String host, Check check) {
+		FutureTask<Result> task = new FutureTask<Result>(check);
+		synchronized (hostQueues) {
+			HostQueue queue = hostQueues.get(host);
+			if (queue == null) {
+				queue = new HostQueue();
+				hostQueues.put(host, queue);
+			}
+			queue.waiting.add(task);
+			startNext(host, queue);
+		}
+		return task;
+	}
+
+	/**
+	 * Hands the next checks of a host to the workers, as long as the host is below its limit. The caller must hold the
+	 * lock of {@link #hostQueues}.
+	 */
+	private void startNext(final String host, HostQueue queue) {
+		while ((queue.running < maxPerHost) && !queue.waiting.isEmpty()) {
+			final FutureTask<Result> task = queue.waiting.poll();
+			queue.running++;
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run(); // does nothing, if the check was cancelled while queued
+					} finally {
+						finished(host);
+					}
+				}
+			});
+		}
+	}
+
+	private void finished(String host) {
+		synchronized (hostQueues) {
+			HostQueue queue = hostQueues.get(host);
+			queue.running--;
+			if ((queue.running == 0) && queue.waiting.isEmpty()) {
+				hostQueues.remove(host);
+			} else {
+				startNext(host, queue);
+			}
+		}
+	}
+
+	/**
+	 * Requests a URL and returns the HTTP status; the body is not read.
+	 */
+	private int request(URL url, String method) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try {
+			connection.setRequestMethod(method);
+			connection.setConnectTimeout(timeoutMillis);
+			connection.setReadTimeout(timeoutMillis);
+			connection.setInstanceFollowRedirects(true);
+			connection.setUseCaches(false);
+			int responseCode = connection.getResponseCode();
+			if ("GET".equals(method) && (responseCode < HttpURLConnection.HTTP_BAD_REQUEST)) {
+				// only the status is needed
+				InputStream in = connection.getInputStream();
+				in.close();
+			}
+			return responseCode;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * The checks of a host that wait for a worker, and the number of its checks that are running.
+	 */
+	private static class HostQueue {
+		private final Queue<FutureTask<Result>> waiting = new ArrayDeque<FutureTask<Result>>();
+		private int running;
+	}
+
+	/**
+	 * Checks a single URL. Servers that do not support HEAD are asked with GET.
+	 */
+	private class Check implements Callable<Result> {
+		private final URL url;
+
+		Check(URL url) {
+			this.url = url;
+		}
+
+		@Override
+		public Result call() throws Exception {
+			try {
+				int responseCode = request(url, "HEAD");
+				if ((responseCode == HttpURLConnection.HTTP_BAD_METHOD) || (responseCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED)) {
+					responseCode = request(url, "GET");
+				}
+				return new Result(responseCode, null);
+			} catch (IOException e) {
+				LOG.debug("Unable to reach " + url + ": " + e);
+				return new Result(-1, e.toString());
+			}
+		}
+	}
+
+	/**
+	 * The result of checking a URL.
+	 */
+	public static class Result {
+		private final int responseCode;
+		private final String error;
+		private final long checkedAt = System.currentTimeMillis();
+
+		Result(int responseCode, String error) {
+			this.responseCode = responseCode;
+			this.error = error;
+		}
+
+		/**
+		 * @return true, if the server answered with a success status
+		 */
+		public boolean isReachable() {
+			return (responseCode >= HttpURLConnection.HTTP_OK) && (responseCode < HttpURLConnection.HTTP_MULT_CHOICE);
+		}
+
+		/**
+		 * @return the HTTP status, or -1 if there was no answer
+		 */
+		public int getResponseCode() {
+			return responseCode;
+		}
+
+		/**
+		 * @return why the URL is not reachable, as a HTTP status or an error message
+		 */
+		public String getReason() {
+			if (error != null) {
+				return error;
+			}
+			return "HTTP " + responseCode;
+		}
+
+		boolean isExpired(long cacheMillis) {
+			return System.currentTimeMillis() - checkedAt >= cacheMillis;
+		}
+	}
+}
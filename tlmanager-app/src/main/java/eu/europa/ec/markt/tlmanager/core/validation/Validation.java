@@ -21,19 +21,30 @@
 package eu.europa.ec.markt.tlmanager.core.validation;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.text.MessageFormat;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -47,10 +58,14 @@ import org.slf4j.LoggerFactory;
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.exception.DSSException;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+import eu.europa.ec.markt.tlmanager.core.CertificateCache;
 import eu.europa.ec.markt.tlmanager.core.Configuration;
 import eu.europa.ec.markt.tlmanager.core.Configuration.CountryCodes;
 import eu.europa.ec.markt.tlmanager.core.QNames;
 import eu.europa.ec.markt.tlmanager.core.validation.StatusInformationFlow.Status;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationRule.Phase;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationRule.Scope;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationRule.Severity;
 import eu.europa.ec.markt.tlmanager.util.Util;
 import eu.europa.ec.markt.tsl.jaxb.ecc.CriteriaListType;
 import eu.europa.ec.markt.tsl.jaxb.ecc.KeyUsageBitType;
@@ -96,6 +111,7 @@ import eu.europa.ec.markt.tsl.jaxb.xmldsig.KeyValueType;
  * First all relevant jaxb-object-hierarchy segments are extracted an checked in two phases:<p>
  * 1. checking of mandatory values ('checkMandatory'...)
  * 2. checking of business rules ('checkRule'...)<p>
+ * Every check method is registered as a {@code ValidationRule} in {@link #createRules()}; new check methods have to be added there.
  * If there are errors in phase 1, the 2nd phase won't be started. Although the individual validation
  * methods here may rely on the work of {@code ObjectFiller}, null checks are done again extensively.
  *
@@ -123,6 +139,12 @@ public class Validation {
 
 	private ValidationLogger logger;
 
+	/*
+	 * Services are only split into chunks for parallel validation if every chunk gets at least this many; below, the overhead
+	 * outweighs the gain.
+	 */
+	private static final int MIN_SERVICES_PER_CHUNK = 50;
+
 	private enum NODE_NAMES {
 		Tsl, Pointer, Tsp, Service, History, Extension
 	}
@@ -136,47 +158,810 @@ public class Validation {
 		this.tsl = tsl;
 		this.vParams = vp;
 		explodeTSL();
-		logger = new ValidationLogger();
+	}
+
+	/**
+	 * Creates a copy of a validation that shares the exploded objects but reports to its own logger. Used to execute rules
+	 * on their own, possibly concurrently and for a part of the services only.
+	 *
+	 * @param parent the validation to copy
+	 * @param logger the logger of the copy
+	 * @param services the services the copy validates; histories and extensions are restricted to these services
+	 */
+	private Validation(Validation parent, ValidationLogger logger, List<TSPServiceType> services) {
+		this.tsl = parent.tsl;
+		this.vParams = parent.vParams;
+		this.schemeInformation = parent.schemeInformation;
+		this.pointers = parent.pointers;
+		this.tsps = parent.tsps;
+		this.services = services;
+		if (services == parent.services) {
+			this.histories = parent.histories;
+			this.extensions = parent.extensions;
+		} else {
+			explodeServices();
+		}
+		this.logger = logger;
+	}
+
+	/**
+	 * Sets the parameters for the next validation, e.g. when the validation is kept to revalidate the list after an edit.
+	 *
+	 * @param vp the validation parameters
+	 */
+	public void setValidationParameters(ValidationParameters vp) {
+		this.vParams = vp;
 	}
 
 	/**
 	 * Performs the validation.
 	 */
 	public ValidationLogger validate() {
+		return validate(true);
+	}
+
+	/**
+	 * Performs the validation, reporting to a new logger.
+	 *
+	 * @param remote false, if the rules that contact servers are skipped
+	 * @return the logger holding the result
+	 */
+	private ValidationLogger validate(final boolean remote) {
+		logger = new ValidationLogger();
 		// 1st phase
-		callMethods("checkMandatory");
+		runPhase(Phase.MANDATORY, remote);
 		// if there are errors till now, next phase is not started
 		if (logger.hasErrors()) {
 			logger.info(uiKeys.getString("Validation.mandatory.fieldsNOk"));
 		} else {
 			// 2nd phase
 			logger.info(uiKeys.getString("Validation.mandatory.fieldsOk"));
-			callMethods("checkRule");
+			runPhase(Phase.RULE, remote);
 			if (logger.hasErrors()) {
 				logger.info(uiKeys.getString("Validation.mandatory.rulesNOk"));
 			} else {
 				logger.info(uiKeys.getString("Validation.mandatory.rulesOk"));
 			}
 		}
+		LOG.debug("{}", CertificateCache.getInstance());
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Validation statistics:\n{}", logger.getStatisticsSummary());
+		}
 
 		return logger;
 	}
 
-	private void callMethods(final String methodNamePrefix) {
+	private void runPhase(final Phase phase, final boolean remote) {
 
-		for (Method m : this.getClass().getDeclaredMethods()) {
+		final long start = System.nanoTime();
+		final List<ValidationRule> rules = new ArrayList<ValidationRule>();
+		for (ValidationRule rule : ValidationRuleRegistry.getInstance().getEnabledRules(phase)) {
+			if (remote || !rule.isRemote()) {
+				rules.add(rule);
+			}
+		}
+		if ((vParams != null) && vParams.isParallel() && (rules.size() > 1)) {
+			runParallel(rules);
+		} else {
+			for (ValidationRule rule : rules) {
+				logger.append(runRule(rule, services));
+			}
+		}
+		logger.recordPhase(phase, System.nanoTime() - start);
+	}
 
-			if (m.getName().startsWith(methodNamePrefix)) {
+	/**
+	 * Executes a rule on a copy of this validation and records its statistics.
+	 *
+	 * @param rule the rule to execute
+	 * @param servicesToCheck the services the rule checks
+	 * @return the logger holding the messages and the statistics of the rule
+	 */
+	private ValidationLogger runRule(final ValidationRule rule, final List<TSPServiceType> servicesToCheck) {
+		return runRule(rule, servicesToCheck, true);
+	}
 
-				try {
-					m.invoke(this, null);
-				} catch (Exception ex) {
-					String name = m.getName();
-					LOG.error(">>> Cannot call the following method: " + name + " with " + ex.getMessage(), ex);
-					logger.info(uiKeys.getString("Validation.mandatory.internalError") + " " + name);
+	/**
+	 * Executes a rule on a copy of this validation and records its statistics.
+	 *
+	 * @param rule the rule to execute
+	 * @param servicesToCheck the services the rule checks
+	 * @param countExecution false for all but the first chunk of services, so that every rule is counted once per validation
+	 * @return the logger holding the messages and the statistics of the rule
+	 */
+	private ValidationLogger runRule(final ValidationRule rule, final List<TSPServiceType> servicesToCheck, final boolean countExecution) {
+		final Validation copy = new Validation(this, new ValidationLogger(rule.getId()), servicesToCheck);
+		final long start = System.nanoTime();
+		try {
+			rule.check(copy);
+		} catch (Exception ex) {
+			copy.logInternalError(rule, ex);
+		}
+		final RuleStatistics statistics = new RuleStatistics(rule);
+		if (countExecution) {
+			statistics.countExecution();
+		}
+		statistics.add(System.nanoTime() - start, copy.countObjects(rule.getScope()), copy.logger.getMessages());
+		rule.record(statistics);
+		copy.logger.addStatistics(statistics);
+		return copy.logger;
+	}
+
+	/**
+	 * @param scope the scope of a rule
+	 * @return the number of objects a rule of the given scope checks
+	 */
+	private int countObjects(final Scope scope) {
+		switch (scope) {
+		case LIST:
+			return 1 + ((pointers == null) ? 0 : pointers.size());
+		case PROVIDER:
+			return (tsps == null) ? 0 : tsps.size();
+		default:
+			return (services == null) ? 0 : services.size();
+		}
+	}
+
+	private void logInternalError(final ValidationRule rule, final Throwable ex) {
+		LOG.error(">>> Cannot execute the following rule: " + rule.getId() + " with " + ex.getMessage(), ex);
+		final ValidationLogger ruleLogger = new ValidationLogger(rule.getId());
+		ruleLogger.info(uiKeys.getString("Validation.mandatory.internalError") + " " + rule.getId());
+		logger.append(ruleLogger);
+	}
+
+	/**
+	 * Executes every rule on its own copy of this validation, all of them concurrently. The rules only read the exploded objects.
+	 * Rules that check every service on its own are additionally split into chunks of consecutive services. The messages are
+	 * appended in the order of the rules and chunks, so that the result is the same as for the sequential execution.
+	 *
+	 * @param rules the rules to execute
+	 */
+	private void runParallel(final List<ValidationRule> rules) {
+		final List<ValidationRule> taskRules = new ArrayList<ValidationRule>();
+		final List<Future<ValidationLogger>> results = new ArrayList<Future<ValidationLogger>>();
+		for (final ValidationRule rule : rules) {
+			if (rule.isPerService()) {
+				final List<List<TSPServiceType>> chunks = splitServices();
+				for (int i = 0; i < chunks.size(); i++) {
+					taskRules.add(rule);
+					results.add(submit(rule, chunks.get(i), i == 0));
+				}
+			} else {
+				taskRules.add(rule);
+				results.add(submit(rule, services, true));
+			}
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				logger.append(results.get(i).get());
+			} catch (ExecutionException ex) {
+				logInternalError(taskRules.get(i), ex.getCause());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				for (Future<ValidationLogger> result : results) {
+					result.cancel(true);
+				}
+				logInternalError(taskRules.get(i), ex);
+				return;
+			}
+		}
+	}
+
+	private Future<ValidationLogger> submit(final ValidationRule rule, final List<TSPServiceType> servicesToCheck, final boolean countExecution) {
+		return Workers.EXECUTOR.submit(new Callable<ValidationLogger>() {
+			@Override
+			public ValidationLogger call() {
+				return runRule(rule, servicesToCheck, countExecution);
+			}
+		});
+	}
+
+	/**
+	 * Splits the services into chunks of consecutive services, at most one per worker thread and none smaller than
+	 * {@link #MIN_SERVICES_PER_CHUNK}.
+	 *
+	 * @return the chunks, in document order
+	 */
+	private List<List<TSPServiceType>> splitServices() {
+		final List<List<TSPServiceType>> chunks = new ArrayList<List<TSPServiceType>>();
+		final int size = (services == null) ? 0 : services.size();
+		final int count = Math.max(1, Math.min(Workers.THREADS, size / MIN_SERVICES_PER_CHUNK));
+		if (count == 1) {
+			chunks.add(services);
+			return chunks;
+		}
+		for (int i = 0; i < count; i++) {
+			chunks.add(services.subList(i * size / count, (i + 1) * size / count));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Re-validates the list after a single object was changed, based on the result of a previous validation. Only the rules
+	 * that depend on the changed object are executed again, and rules that check every service on its own only check the
+	 * services containing the changed object. The previous messages of these rules are replaced, so that the given logger
+	 * afterwards holds the same messages as after a complete validation. Rules that contact servers are not executed again;
+	 * their previous messages are kept until the next complete validation. All other rules are executed again instead, if
+	 * the change decides whether the business rules are checked at all, or if the changed object is unknown.
+	 *
+	 * @param previous the logger holding the previous result; it is updated
+	 * @param changed the changed object, i.e. the user object of the edited tree node
+	 * @return the updated logger
+	 */
+	public ValidationLogger revalidate(final ValidationLogger previous, final Object changed) {
+		final Set<Scope> scopes = EnumSet.noneOf(Scope.class);
+		final List<TSPServiceType> affectedServices = new ArrayList<TSPServiceType>();
+		final List<Object> affectedObjects = new ArrayList<Object>();
+		if (!locateChange(changed, scopes, affectedServices, affectedObjects)) {
+			return revalidateAll(previous);
+		}
+
+		final ValidationRuleRegistry registry = ValidationRuleRegistry.getInstance();
+		final boolean mandatoryErrorsBefore = hasMandatoryErrors(previous.getMessages());
+		final Set<String> ruleIds = new HashSet<String>();
+		final Set<String> remoteRuleIds = new HashSet<String>();
+		final List<ValidationLogger> results = new ArrayList<ValidationLogger>();
+		for (Phase phase : Phase.values()) {
+			if ((phase == Phase.RULE) && mandatoryErrorsBefore) {
+				break; // the business rules were not checked before
+			}
+			for (ValidationRule rule : registry.getEnabledRules(phase)) {
+				if (rule.isRemote()) {
+					remoteRuleIds.add(rule.getId());
+				} else if (scopes.contains(rule.getScope())) {
+					if (!rule.isPerService()) {
+						// the messages of the other services are still valid
+						ruleIds.add(rule.getId());
+					}
+					results.add(runRule(rule, rule.isPerService() ? affectedServices : services));
+				}
+			}
+		}
+
+		final List<ValidationLogger.Message> messages = new ArrayList<ValidationLogger.Message>();
+		for (ValidationLogger.Message message : previous.getMessages()) {
+			if (remoteRuleIds.contains(message.getRuleId())) {
+				messages.add(message);
+			}
+		}
+
+		// rules that check services on their own only reported messages for objects of the affected services
+		previous.removeMessagesForObjects(affectedObjects);
+		previous.removeMessagesForRules(ruleIds);
+
+		for (ValidationLogger.Message message : previous.getMessages()) {
+			// drop the summary messages, they are recreated below
+			if ((message.getRuleId() != null) && !remoteRuleIds.contains(message.getRuleId())) {
+				messages.add(message);
+			}
+		}
+		for (ValidationLogger result : results) {
+			messages.addAll(result.getMessages());
+		}
+		if (hasMandatoryErrors(messages) != mandatoryErrorsBefore) {
+			return revalidateAll(previous);
+		}
+
+		previous.replaceMessages(summarize(messages, mandatoryErrorsBefore));
+		for (ValidationLogger result : results) {
+			previous.replaceStatistics(result);
+		}
+		return previous;
+	}
+
+	/**
+	 * Executes all rules again, except for the rules that contact servers. Their previous messages are kept, if the business
+	 * rules are still checked.
+	 *
+	 * @param previous the logger holding the previous result; it is updated
+	 * @return the updated logger
+	 */
+	private ValidationLogger revalidateAll(final ValidationLogger previous) {
+		final ValidationLogger result = validate(false);
+		final boolean mandatoryErrors = hasMandatoryErrors(result.getMessages());
+		final List<ValidationLogger.Message> messages = new ArrayList<ValidationLogger.Message>();
+		for (ValidationLogger.Message message : result.getMessages()) {
+			// drop the summary messages, they are recreated below
+			if (message.getRuleId() != null) {
+				messages.add(message);
+			}
+		}
+		for (ValidationLogger.Message message : previous.getMessages()) {
+			final ValidationRule rule = (message.getRuleId() == null) ? null : ValidationRuleRegistry.getInstance().getRule(message.getRuleId());
+			if ((rule != null) && rule.isRemote() && ((rule.getPhase() == Phase.MANDATORY) || !mandatoryErrors)) {
+				messages.add(message);
+			}
+		}
+		previous.replaceMessages(summarize(messages, mandatoryErrors));
+		previous.replaceStatistics(result);
+		return previous;
+	}
+
+	/**
+	 * Determines which rules have to be executed again after the given object was changed.
+	 *
+	 * @param changed the changed object
+	 * @param scopes receives the scopes of the rules to execute
+	 * @param affectedServices receives the services that contain the changed object
+	 * @param affectedObjects receives all objects of the affected services, and the changed provider
+	 * @return false, if the changed object is not part of the list
+	 */
+	private boolean locateChange(final Object changed, final Set<Scope> scopes, final List<TSPServiceType> affectedServices, final List<Object> affectedObjects) {
+		if ((changed == tsl) || (changed == schemeInformation) || ((pointers != null) && containsIdentical(pointers, changed))) {
+			scopes.add(Scope.LIST);
+			return true;
+		}
+		if (tsps == null) {
+			return false;
+		}
+		for (TSPType tsp : tsps) {
+			if (tsp.getTSPServices() == null) {
+				if (changed == tsp) {
+					scopes.add(Scope.PROVIDER);
+					affectedObjects.add(tsp);
+					return true;
+				}
+				continue;
+			}
+			final List<TSPServiceType> tspServices = tsp.getTSPServices().getTSPService();
+			if (changed == tsp) {
+				scopes.addAll(EnumSet.of(Scope.PROVIDER, Scope.SERVICE, Scope.ALL_SERVICES));
+				affectedServices.addAll(tspServices);
+				affectedObjects.add(tsp);
+				for (TSPServiceType service : tspServices) {
+					collectServiceObjects(service, affectedObjects);
+				}
+				return true;
+			}
+			for (TSPServiceType service : tspServices) {
+				final List<Object> serviceObjects = new ArrayList<Object>();
+				collectServiceObjects(service, serviceObjects);
+				if (containsIdentical(serviceObjects, changed)) {
+					scopes.addAll(EnumSet.of(Scope.SERVICE, Scope.ALL_SERVICES));
+					affectedServices.add(service);
+					affectedObjects.addAll(serviceObjects);
+					return true;
 				}
 			}
 		}
+		return false;
+	}
+
+	private static boolean containsIdentical(final List<?> list, final Object object) {
+		for (Object item : list) {
+			if (item == object) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects, in document order, all objects of a service that messages may refer to.
+	 *
+	 * @param service the service
+	 * @param objects receives the objects
+	 */
+	private static void collectServiceObjects(final TSPServiceType service, final List<Object> objects) {
+		objects.add(service);
+		if (service.getServiceInformation() != null) {
+			collectExtensionObjects(service.getServiceInformation().getServiceInformationExtensions(), objects);
+		}
+		if (service.getServiceHistory() != null) {
+			for (ServiceHistoryInstanceType history : service.getServiceHistory().getServiceHistoryInstance()) {
+				objects.add(history);
+				collectExtensionObjects(history.getServiceInformationExtensions(), objects);
+			}
+		}
+	}
+
+	private static void collectExtensionObjects(final ExtensionsListType extensionsList, final List<Object> objects) {
+		if (extensionsList == null) {
+			return;
+		}
+		objects.add(extensionsList);
+		for (ExtensionType extension : extensionsList.getExtension()) {
+			for (Object content : extension.getContent()) {
+				if ((content instanceof JAXBElement<?>) && QNames._Qualifications_QNAME.equals(((JAXBElement<?>) content).getName())) {
+					objects.addAll(((QualificationsType) ((JAXBElement<?>) content).getValue()).getQualificationElement());
+				}
+			}
+		}
+	}
+
+	private static boolean hasMandatoryErrors(final List<ValidationLogger.Message> messages) {
+		for (ValidationLogger.Message message : messages) {
+			final ValidationRule rule = (message.getRuleId() == null) ? null : ValidationRuleRegistry.getInstance().getRule(message.getRuleId());
+			if ((rule != null) && (rule.getPhase() == Phase.MANDATORY) && (message.getLevel() == ValidationLogger.LEVEL.Error)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Orders the messages of all rules like a complete validation does, i.e. by rule and by the position of the referenced
+	 * object in the document, and adds the summary messages.
+	 *
+	 * @param ruleMessages the messages of all rules
+	 * @param mandatoryErrors true, if the mandatory checks reported errors
+	 * @return the messages of the validation
+	 */
+	private List<ValidationLogger.Message> summarize(final List<ValidationLogger.Message> ruleMessages, final boolean mandatoryErrors) {
+		final Map<String, Integer> ruleIndex = new HashMap<String, Integer>();
+		final List<ValidationRule> rules = ValidationRuleRegistry.getInstance().getRules();
+		for (int i = 0; i < rules.size(); i++) {
+			ruleIndex.put(rules.get(i).getId(), i);
+		}
+		final Map<Object, Integer> documentIndex = indexObjects();
+		final List<ValidationLogger.Message> sorted = new ArrayList<ValidationLogger.Message>(ruleMessages);
+		Collections.sort(sorted, new Comparator<ValidationLogger.Message>() {
+			@Override
+			public int compare(ValidationLogger.Message m1, ValidationLogger.Message m2) {
+				final int byRule = index(ruleIndex, m1.getRuleId()) - index(ruleIndex, m2.getRuleId());
+				if (byRule != 0) {
+					return byRule;
+				}
+				return Integer.valueOf(index(documentIndex, m1.getParentPanelObject())).compareTo(index(documentIndex, m2.getParentPanelObject()));
+			}
+		});
+
+		final List<ValidationLogger.Message> result = new ArrayList<ValidationLogger.Message>();
+		boolean ruleErrors = false;
+		boolean summaryAdded = false;
+		for (ValidationLogger.Message message : sorted) {
+			final boolean businessRule = ValidationRuleRegistry.getInstance().getRule(message.getRuleId()).getPhase() == Phase.RULE;
+			if (businessRule && !summaryAdded) {
+				result.add(new ValidationLogger.Message(ValidationLogger.LEVEL.Info, uiKeys.getString("Validation.mandatory.fieldsOk"), null));
+				summaryAdded = true;
+			}
+			ruleErrors |= businessRule && (message.getLevel() == ValidationLogger.LEVEL.Error);
+			result.add(message);
+		}
+		if (mandatoryErrors) {
+			result.add(new ValidationLogger.Message(ValidationLogger.LEVEL.Info, uiKeys.getString("Validation.mandatory.fieldsNOk"), null));
+		} else {
+			if (!summaryAdded) {
+				result.add(new ValidationLogger.Message(ValidationLogger.LEVEL.Info, uiKeys.getString("Validation.mandatory.fieldsOk"), null));
+			}
+			final String key = ruleErrors ? "Validation.mandatory.rulesNOk" : "Validation.mandatory.rulesOk";
+			result.add(new ValidationLogger.Message(ValidationLogger.LEVEL.Info, uiKeys.getString(key), null));
+		}
+		return result;
+	}
+
+	private static <K> int index(final Map<K, Integer> indexes, final K key) {
+		final Integer index = (key == null) ? null : indexes.get(key);
+		return (index == null) ? Integer.MAX_VALUE : index;
+	}
+
+	/**
+	 * @return the position in the document of every object that messages may refer to
+	 */
+	private Map<Object, Integer> indexObjects() {
+		final List<Object> objects = new ArrayList<Object>();
+		objects.add(tsl);
+		if (pointers != null) {
+			objects.addAll(pointers);
+		}
+		if (tsps != null) {
+			for (TSPType tsp : tsps) {
+				objects.add(tsp);
+				if (tsp.getTSPServices() != null) {
+					for (TSPServiceType service : tsp.getTSPServices().getTSPService()) {
+						collectServiceObjects(service, objects);
+					}
+				}
+			}
+		}
+		final Map<Object, Integer> index = new IdentityHashMap<Object, Integer>();
+		for (int i = 0; i < objects.size(); i++) {
+			index.put(objects.get(i), i);
+		}
+		return index;
+	}
+
+	/**
+	 * The threads that execute rules in parallel; created on first use and shared by all validations.
+	 */
+	private static class Workers {
+		private static final int THREADS = Runtime.getRuntime().availableProcessors();
+		private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+			private final AtomicInteger counter = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "tlmanager-validation-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Creates all validation rules, in order of execution. Called once by {@code ValidationRuleRegistry}.
+	 *
+	 * @return the rules
+	 */
+	static List<ValidationRule> createRules() {
+		List<ValidationRule> rules = new ArrayList<ValidationRule>();
+
+		rules.add(new ValidationRule("Mandatory.TSL", Phase.MANDATORY, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryTSL();
+			}
+		});
+
+		rules.add(new ValidationRule("Mandatory.Pointer", Phase.MANDATORY, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryPointer();
+			}
+		});
+
+		rules.add(new ValidationRule("Mandatory.TSP", Phase.MANDATORY, Severity.ERROR, Scope.PROVIDER) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryTSP();
+			}
+		});
+
+		rules.add(new ValidationRule("Mandatory.Service", Phase.MANDATORY, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryService();
+			}
+		});
+
+		rules.add(new ValidationRule("Mandatory.History", Phase.MANDATORY, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryHistory();
+			}
+		});
+
+		rules.add(new ValidationRule("Mandatory.Extension", Phase.MANDATORY, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkMandatoryExtension();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.IssueDate", Phase.RULE, Severity.WARNING) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleIssueDate();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.NextUpdate", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleNextUpdate();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SequenceNumberFormat", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSequenceNumberFormat();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeName", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeName();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.HistoricalPeriod", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleHistoricalPeriod();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.PointerToOtherTSL", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRulePointerToOtherTSL();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.TypeCommunityRule", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleTypeCommunityRule();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemaInformationTSLType", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemaInformationTSLType();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeTerritoryInUpperCase", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeTerritoryInUpperCase();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.TSLType", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleTSLType();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeTerritory", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeTerritory();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeTypeCommunityRule", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeTypeCommunityRule();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.UniqueSDIForEachService", Phase.RULE, Severity.ERROR, Scope.ALL_SERVICES) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleUniqueSDIForEachService();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeOperatorElectronicAddress", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeOperatorElectronicAddress();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.StatusDeterminationApproach", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleStatusDeterminationApproach();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.SchemeInformationSchemeExtensions", Phase.RULE, Severity.ERROR) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleSchemeInformationSchemeExtensions();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.TSPElectronicAddress", Phase.RULE, Severity.ERROR, Scope.PROVIDER) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleTSPElectronicAddress();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ServiceInformationExtensions", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleServiceInformationExtensions();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.CurrentStatusStartingDate", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleCurrentStatusStartingDate();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ServiceTypeIdentifier", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleServiceTypeIdentifier();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ServiceDigitalIdentifier", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleServiceDigitalIdentifier();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.PreviousStatusStartingDate", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRulePreviousStatusStartingDate();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ServiceCurrentStatusWithServiceHistory", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleServiceCurrentStatusWithServiceHistory();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.TspServiceCurrentStatus", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleTspServiceCurrentStatus();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.TspServiceDefinitionUrl", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleTspServiceDefinitionUrl();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.QualificationExtensionApplicability", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleQualificationExtensionApplicability();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.AdditionalServiceInformationExtension", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleAdditionalServiceInformationExtension();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ExpiredCertsRevocationExtensionCriticality", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleExpiredCertsRevocationExtensionCriticality();
+			}
+		});
+
+		rules.add(new ValidationRule("Rule.ExpiredCertsRevocationExtensionApplicability", Phase.RULE, Severity.ERROR, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleExpiredCertsRevocationExtensionApplicability();
+			}
+		});
+
+		// these rules contact servers; they are only executed if configured
+		ValidationRule reachableLocations = new ValidationRule("Rule.ReachableLocations", Phase.RULE, Severity.WARNING) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleReachableLocations();
+			}
+
+			@Override
+			public boolean isRemote() {
+				return true;
+			}
+		};
+		reachableLocations.setEnabled(Configuration.getInstance().isUrlCheck());
+		rules.add(reachableLocations);
+
+		ValidationRule reachableSupplyPoints = new ValidationRule("Rule.ReachableSupplyPoints", Phase.RULE, Severity.WARNING, Scope.SERVICE) {
+			@Override
+			void check(Validation validation) {
+				validation.checkRuleReachableSupplyPoints();
+			}
+
+			@Override
+			public boolean isRemote() {
+				return true;
+			}
+		};
+		reachableSupplyPoints.setEnabled(Configuration.getInstance().isUrlCheck());
+		rules.add(reachableSupplyPoints);
+
+		return rules;
 	}
 
 	// Note: tsl and schemeInformation are the only objects that do not need to be null-checked
@@ -193,8 +978,6 @@ public class Validation {
 
 		if ((tsps != null) && !tsps.isEmpty()) {
 			services = new ArrayList<TSPServiceType>();
-			histories = new ArrayList<ServiceHistoryInstanceType>();
-			extensions = new ArrayList<ExtensionsListType>();
 
 			for (TSPType tsp : tsps) {
 				if (tsp.getTSPServices() != null) {
@@ -202,19 +985,32 @@ public class Validation {
 				}
 			}
 
-			for (TSPServiceType service : services) {
-				if ((service.getServiceHistory() != null) && !service.getServiceHistory().getServiceHistoryInstance().isEmpty()) {
-					histories.addAll(service.getServiceHistory().getServiceHistoryInstance());
-				}
-				if ((service.getServiceInformation() != null) && (service.getServiceInformation().getServiceInformationExtensions() != null)) {
-					extensions.add(service.getServiceInformation().getServiceInformationExtensions());
-				}
-			}
+			explodeServices();
+		}
+	}
 
-			// there may be more extensions
-			for (ServiceHistoryInstanceType history : histories) {
-				if (history.getServiceInformationExtensions() != null) {
-					extensions.add(history.getServiceInformationExtensions());
+	/**
+	 * Collects histories and extensions of the services, in document order: the extensions of a service are followed by those
+	 * of its histories.
+	 */
+	private void explodeServices() {
+		if (services == null) {
+			return;
+		}
+		histories = new ArrayList<ServiceHistoryInstanceType>();
+		extensions = new ArrayList<ExtensionsListType>();
+
+		for (TSPServiceType service : services) {
+			if ((service.getServiceInformation() != null) && (service.getServiceInformation().getServiceInformationExtensions() != null)) {
+				extensions.add(service.getServiceInformation().getServiceInformationExtensions());
+			}
+			if ((service.getServiceHistory() != null) && !service.getServiceHistory().getServiceHistoryInstance().isEmpty()) {
+				for (ServiceHistoryInstanceType history : service.getServiceHistory().getServiceHistoryInstance()) {
+					histories.add(history);
+					// there may be more extensions
+					if (history.getServiceInformationExtensions() != null) {
+						extensions.add(history.getServiceInformationExtensions());
+					}
 				}
 			}
 		}
@@ -373,7 +1169,7 @@ public class Validation {
 			}
 			try {
 
-				x509Certificate = DSSUtils.loadCertificate(digitalIdentity.getX509Certificate());
+				x509Certificate = CertificateCache.getInstance().get(digitalIdentity.getX509Certificate());
 				final PublicKey publicKey = x509Certificate.getPublicKey();
 				if (lastPublicKey != null) {
 
@@ -483,7 +1279,7 @@ public class Validation {
 
 				try {
 
-					x509Certificate = DSSUtils.loadCertificate(x509CertificateBytes);
+					x509Certificate = CertificateCache.getInstance().get(x509CertificateBytes);
 				} catch (DSSException e) {
 					LOG.error("Certificate " + DSSUtils.base64Encode(x509CertificateBytes));
 					log(parent, "Validation.mandatory.certificate.invalid", e);
@@ -1300,37 +2096,76 @@ public class Validation {
 			return;
 		}
 
-		final Set<String> keySet = new HashSet<String>();
+		final KeyIndex<ServiceKey, TSPServiceType> index = new KeyIndex<ServiceKey, TSPServiceType>(services.size());
 		for (final TSPServiceType service : services) {
 
+			// services without a certificate have no public key to compare; this is reported by other rules
+			final ServiceKey key = ServiceKey.forService(service);
+			if (key != null) {
+				index.add(key, service);
+			}
+		}
+		for (final List<TSPServiceType> conflicting : index.getDuplicates()) {
+			final String message = MessageFormat.format(uiKeys.getString("Validation.rule.uniqueSDIperService"), conflicting.size());
+			LOG.error(message);
+			for (final TSPServiceType service : conflicting) {
+				logger.error(message, service);
+			}
+		}
+	}
+
+	/**
+	 * Identifies a service by its type and the SHA-256 digest of the SubjectPublicKeyInfo of its certificate.
+	 */
+	static final class ServiceKey {
+		private final String serviceTypeIdentifier;
+		private final byte[] publicKeyDigest;
+		private final int hashCode;
+
+		ServiceKey(final String serviceTypeIdentifier, final byte[] publicKeyDigest) {
+			this.serviceTypeIdentifier = serviceTypeIdentifier;
+			this.publicKeyDigest = publicKeyDigest;
+			this.hashCode = 31 * ((serviceTypeIdentifier == null) ? 0 : serviceTypeIdentifier.hashCode()) + Arrays.hashCode(publicKeyDigest);
+		}
+
+		/**
+		 * @param service the service
+		 * @return the key of the first readable certificate of the service, or null if none of its certificates can be read
+		 */
+		static ServiceKey forService(final TSPServiceType service) {
+
 			// both values are mandatory and are supposed to be present at this point
 			final TSPServiceInformationType serviceInformation = service.getServiceInformation();
-			final String serviceTypeIdentifier = serviceInformation.getServiceTypeIdentifier();
-			final DigitalIdentityListType sdi = serviceInformation.getServiceDigitalIdentity();
-			byte[] publicKey = null;
-			for (final DigitalIdentityType digitalIdentity : sdi.getDigitalId()) { // 1-2 entries
+			for (final DigitalIdentityType digitalIdentity : serviceInformation.getServiceDigitalIdentity().getDigitalId()) { // 1-2 entries
 
-				try {
-
-					byte[] x509Certificate = digitalIdentity.getX509Certificate();
-					if (x509Certificate != null) {
+				final byte[] x509Certificate = digitalIdentity.getX509Certificate();
+				if (x509Certificate != null) {
+					try {
 
-						final CertificateToken x509 = DSSUtils.loadCertificate(x509Certificate);
-						publicKey = x509.getPublicKey().getEncoded();
-						break;
+						final CertificateToken x509 = CertificateCache.getInstance().get(x509Certificate);
+						final byte[] publicKeyDigest = CertificateCache.digest(x509.getPublicKey().getEncoded());
+						return new ServiceKey(serviceInformation.getServiceTypeIdentifier(), publicKeyDigest);
+					} catch (Exception e) {
+						LOG.error(e.getMessage(), e); // try the next certificate
 					}
-				} catch (Exception e) {
-					LOG.error(e.getMessage(), e);
 				}
 			}
-			final String couple = serviceTypeIdentifier + Arrays.hashCode(publicKey);
-			if (keySet.contains(couple)) {
-				final String message = uiKeys.getString("Validation.rule.uniqueSDIperService");
-				LOG.error(message);
-				logger.error(message, service);
-			} else {
-				keySet.add(couple);
+			return null;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ServiceKey)) {
+				return false;
 			}
+			final ServiceKey other = (ServiceKey) obj;
+			return (hashCode == other.hashCode) && Arrays.equals(publicKeyDigest, other.publicKeyDigest)
+					&& ((serviceTypeIdentifier == null) ? (other.serviceTypeIdentifier == null) : serviceTypeIdentifier.equals(other.serviceTypeIdentifier));
 		}
 	}
 
@@ -1691,7 +2526,7 @@ public class Validation {
 		if (currentCertificateBytes != null) {
 			try {
 
-				final CertificateToken certificate = DSSUtils.loadCertificate(currentCertificateBytes);
+				final CertificateToken certificate = CertificateCache.getInstance().get(currentCertificateBytes);
 				return certificate;
 			} catch (Exception ex) {    // catch also potential npe's
 
@@ -1793,7 +2628,7 @@ public class Validation {
 
 						final String message = uiKeys.getString("Validation.rule.serviceCurrentStatus.notConnectedCorrectly");
 						LOG.error(message);
-						logger.error(message, lastStatus);
+						logger.error(message, service);
 						break;
 					}
 				} else {
@@ -1802,7 +2637,7 @@ public class Validation {
 
 						final String message = uiKeys.getString("Validation.rule.serviceCurrentStatus.missingValidStartStatus");
 						LOG.error(message);
-						logger.error(message, status);
+						logger.error(message, service);
 					}
 				}
 				lastStatus = status;
@@ -2125,6 +2960,65 @@ public class Validation {
 		}
 	}
 
+	/**
+	 * The locations of the pointed-to lists and the scheme information URIs must be reachable.
+	 */
+	private void checkRuleReachableLocations() {
+		final KeyIndex<String, Object> urls = new KeyIndex<String, Object>(16);
+		if (pointers != null) {
+			for (OtherTSLPointerType pointer : pointers) {
+				addURL(urls, pointer.getTSLLocation(), pointer);
+			}
+		}
+		if ((schemeInformation != null) && (schemeInformation.getSchemeInformationURI() != null)) {
+			for (NonEmptyMultiLangURIType uri : schemeInformation.getSchemeInformationURI().getURI()) {
+				addURL(urls, uri.getValue(), tsl);
+			}
+		}
+		reportUnreachableURLs(urls);
+	}
+
+	/**
+	 * The service supply points must be reachable.
+	 */
+	private void checkRuleReachableSupplyPoints() {
+		final KeyIndex<String, Object> urls = new KeyIndex<String, Object>((services == null) ? 0 : services.size());
+		if (services != null) {
+			for (TSPServiceType service : services) {
+				final TSPServiceInformationType sinfo = service.getServiceInformation();
+				if ((sinfo != null) && (sinfo.getServiceSupplyPoints() != null)) {
+					for (String supplyPoint : sinfo.getServiceSupplyPoints().getServiceSupplyPoint()) {
+						addURL(urls, supplyPoint, service);
+					}
+				}
+			}
+		}
+		reportUnreachableURLs(urls);
+	}
+
+	private void addURL(final KeyIndex<String, Object> urls, final String url, final Object obj) {
+		if ((url == null) || url.trim().isEmpty()) {
+			return;
+		}
+		urls.add(url, obj);
+	}
+
+	private void reportUnreachableURLs(final KeyIndex<String, Object> urls) {
+		if (urls.isEmpty()) {
+			return;
+		}
+		final Map<String, URLReachabilityChecker.Result> results = URLReachabilityChecker.getInstance().check(urls.keySet());
+		for (Map.Entry<String, URLReachabilityChecker.Result> entry : results.entrySet()) {
+			if (!entry.getValue().isReachable()) {
+				final String message = MessageFormat.format(uiKeys.getString("Validation.rule.unreachableURL"), entry.getKey(), entry.getValue().getReason());
+				LOG.debug(message);
+				for (Object obj : urls.get(entry.getKey())) {
+					logger.warn(message, obj);
+				}
+			}
+		}
+	}
+
 	/**
 	 * @return the logger
 	 */
@@ -21,26 +21,35 @@
 package eu.europa.ec.markt.tlmanager.core.validation;
 
 import eu.europa.ec.markt.tlmanager.core.Configuration;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import javax.swing.Icon;
-import javax.swing.ImageIcon;
-import javax.swing.JLabel;
-import javax.swing.SwingConstants;
 
 /**
- * Logs and maintains all messages that are created during validation.
+ * Logs and maintains all messages that are created during validation, together with the statistics of the executed rules.
+ * The messages are indexed by their parent object and counted by level, so that the messages of a tree node are found and
+ * removed without going through all messages. All methods may be called concurrently.
  * 
  *
  *
  */
 
 public class ValidationLogger {
-    private enum LEVEL {
+    public enum LEVEL {
         Info, Warning, Error
     };
 
@@ -49,42 +58,89 @@ public class ValidationLogger {
 
     private List<Message> messages = new ArrayList<Message>();
 
-    private boolean hasWarned = false;
+    /*
+     * The messages of every parent object, in the order they were logged; the objects are compared by identity
+     */
+    private final Map<Object, List<Message>> messagesByObject = new IdentityHashMap<Object, List<Message>>();
+
+    private final int[] levelCounts = new int[LEVEL.values().length];
+
+    private final Map<String, RuleStatistics> statistics = new LinkedHashMap<String, RuleStatistics>();
+
+    private final Map<ValidationRule.Phase, Long> phaseNanos = new EnumMap<ValidationRule.Phase, Long>(ValidationRule.Phase.class);
 
-    private boolean hasErrors = false;
+    private final String ruleId;
 
     /**
-     * Gets the list of all logged messages.
-     * 
-     * @return the messages
+     * Instantiates a logger for messages that do not belong to a particular rule.
      */
-    public List<Message> getMessages() {
-        return Collections.unmodifiableList(messages);
+    public ValidationLogger() {
+        this(null);
     }
 
-    private Icon resolveIcon(LEVEL level) {
-        if (level != null) {
-            return new ImageIcon(getClass().getResource("/icons/validation_" + level.toString() + ".png"));
-        }
+    /**
+     * Instantiates a logger whose messages all belong to the given rule.
+     * 
+     * @param ruleId the id of the {@code ValidationRule}
+     */
+    public ValidationLogger(String ruleId) {
+        this.ruleId = ruleId;
+    }
 
-        return null;
+    /**
+     * Gets the list of all logged messages.
+     * 
+     * @return a snapshot of the messages
+     */
+    public synchronized List<Message> getMessages() {
+        return Collections.unmodifiableList(new ArrayList<Message>(messages));
     }
 
     /**
-     * Returns the list of validation messages and creates appropriate icons, if they got none.
+     * Appends all messages of another logger, in their order, and takes over its warning and error state. The statistics of
+     * the other logger are added to the ones of this logger.
      * 
-     * @return the validation messages
+     * @param other the logger to append
      */
-    public List<Message> getValidationMessages() {
-        for (Message msg : messages) {
-            if (msg.getLabel() == null) {
-                Icon icon = resolveIcon(msg.getLevel());
-                JLabel label = new JLabel(msg.getMessage(), icon, SwingConstants.CENTER);
-                msg.setLabel(label);
+    public void append(ValidationLogger other) {
+        List<Message> otherMessages = other.getMessages();
+        List<RuleStatistics> otherStatistics = other.getStatistics();
+        synchronized (this) {
+            for (Message msg : otherMessages) {
+                add(msg);
+            }
+            for (RuleStatistics ruleStatistics : otherStatistics) {
+                addStatistics(ruleStatistics);
             }
         }
+    }
 
-        return messages;
+    private void add(Message msg) {
+        messages.add(msg);
+        index(msg);
+    }
+
+    private void index(Message msg) {
+        Object object = msg.getParentPanelObject();
+        if (object != null) {
+            List<Message> objectMessages = messagesByObject.get(object);
+            if (objectMessages == null) {
+                objectMessages = new ArrayList<Message>(2);
+                messagesByObject.put(object, objectMessages);
+            }
+            objectMessages.add(msg);
+        }
+        if (msg.getLevel() != null) {
+            levelCounts[msg.getLevel().ordinal()]++;
+        }
+    }
+
+    private void reindex() {
+        messagesByObject.clear();
+        Arrays.fill(levelCounts, 0);
+        for (Message msg : messages) {
+            index(msg);
+        }
     }
 
     /**
@@ -94,15 +150,158 @@ public class ValidationLogger {
      * 
      * @return true if at least one message was removed
      */
-    public boolean removeMessagesForObjects(List<Object> objects) {
-        List<Message> toRemove = new ArrayList<ValidationLogger.Message>();
+    public synchronized boolean removeMessagesForObjects(List<Object> objects) {
+        Set<Object> toRemove = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        for (Object object : objects) {
+            if (messagesByObject.containsKey(object)) {
+                toRemove.add(object);
+            }
+        }
+        if (toRemove.isEmpty()) {
+            return false;
+        }
+
+        List<Message> remaining = new ArrayList<Message>(messages.size());
         for (Message msg : messages) {
-            if (objects.contains(msg.getParentPanelObject())) {
-                toRemove.add(msg);
+            if (!toRemove.contains(msg.getParentPanelObject())) {
+                remaining.add(msg);
+            }
+        }
+        messages = remaining;
+        for (Object object : toRemove) {
+            for (Message msg : messagesByObject.remove(object)) {
+                if (msg.getLevel() != null) {
+                    levelCounts[msg.getLevel().ordinal()]--;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove all messages that were reported by one of the provided rules.
+     * 
+     * @param ruleIds the ids of the rules
+     * 
+     * @return true if at least one message was removed
+     */
+    public synchronized boolean removeMessagesForRules(Collection<String> ruleIds) {
+        boolean removed = false;
+        for (Iterator<Message> iterator = messages.iterator(); iterator.hasNext();) {
+            if (ruleIds.contains(iterator.next().getRuleId())) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        if (removed) {
+            reindex();
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces all messages, e.g. with the result of an incremental validation.
+     * 
+     * @param newMessages the new messages
+     */
+    synchronized void replaceMessages(List<Message> newMessages) {
+        messages = new ArrayList<Message>(newMessages);
+        reindex();
+    }
+
+    /**
+     * Adds the statistics of an execution of a rule; executions of the same rule are summed up.
+     * 
+     * @param ruleStatistics the statistics to add
+     */
+    synchronized void addStatistics(RuleStatistics ruleStatistics) {
+        RuleStatistics existing = statistics.get(ruleStatistics.getRuleId());
+        if (existing == null) {
+            statistics.put(ruleStatistics.getRuleId(), new RuleStatistics(ruleStatistics));
+        } else {
+            existing.add(ruleStatistics);
+        }
+    }
+
+    /**
+     * Replaces the statistics of all rules that were executed again, e.g. by an incremental validation.
+     * 
+     * @param other the logger holding the statistics of the rules executed again
+     */
+    void replaceStatistics(ValidationLogger other) {
+        List<RuleStatistics> otherStatistics = other.getStatistics();
+        Map<ValidationRule.Phase, Long> otherPhaseNanos;
+        synchronized (other) {
+            otherPhaseNanos = new EnumMap<ValidationRule.Phase, Long>(other.phaseNanos);
+        }
+        synchronized (this) {
+            for (RuleStatistics ruleStatistics : otherStatistics) {
+                statistics.put(ruleStatistics.getRuleId(), ruleStatistics);
             }
+            phaseNanos.putAll(otherPhaseNanos);
+        }
+    }
+
+    /**
+     * Records the wall time of a validation phase.
+     * 
+     * @param phase the phase
+     * @param nanos the time the phase took, in nanoseconds
+     */
+    synchronized void recordPhase(ValidationRule.Phase phase, long nanos) {
+        phaseNanos.put(phase, nanos);
+    }
+
+    /**
+     * Gets the statistics of all executed rules, in order of their first execution.
+     * 
+     * @return a snapshot of the statistics
+     */
+    public synchronized List<RuleStatistics> getStatistics() {
+        List<RuleStatistics> result = new ArrayList<RuleStatistics>(statistics.size());
+        for (RuleStatistics ruleStatistics : statistics.values()) {
+            result.add(new RuleStatistics(ruleStatistics));
         }
+        return result;
+    }
 
-        return messages.removeAll(toRemove);
+    /**
+     * Gets the wall time of a validation phase. If the rules were executed in parallel, this is less than the sum of the times
+     * of its rules.
+     * 
+     * @param phase the phase
+     * @return the time in nanoseconds, or -1 if the phase was not executed
+     */
+    public synchronized long getPhaseNanos(ValidationRule.Phase phase) {
+        Long nanos = phaseNanos.get(phase);
+        return (nanos == null) ? -1 : nanos;
+    }
+
+    /**
+     * Creates a readable summary of the statistics: the time of each phase, followed by the rules, the slowest first.
+     * 
+     * @return the summary
+     */
+    public String getStatisticsSummary() {
+        List<RuleStatistics> sorted = getStatistics();
+        Collections.sort(sorted, new Comparator<RuleStatistics>() {
+            @Override
+            public int compare(RuleStatistics s1, RuleStatistics s2) {
+                return Long.valueOf(s2.getNanos()).compareTo(s1.getNanos());
+            }
+        });
+
+        StringBuilder summary = new StringBuilder();
+        for (ValidationRule.Phase phase : ValidationRule.Phase.values()) {
+            long nanos = getPhaseNanos(phase);
+            if (nanos >= 0) {
+                summary.append(String.format("Phase %-9s %10.2f ms%n", phase, nanos / 1000000d));
+            }
+        }
+        for (RuleStatistics ruleStatistics : sorted) {
+            summary.append(ruleStatistics).append(String.format("%n"));
+        }
+        return summary.toString();
     }
 
     /**
@@ -136,8 +335,8 @@ public class ValidationLogger {
      * @param message he message to log
      * @param obj the reference object
      */
-    private void log(LEVEL level, String message, Object obj) {
-        messages.add(new Message(level, message, obj));
+    private synchronized void log(LEVEL level, String message, Object obj) {
+        add(new Message(level, message, obj, ruleId));
     }
 
     /**
@@ -185,7 +384,6 @@ public class ValidationLogger {
      */
     public void warn(String message, Object obj) {
         log(LEVEL.Warning, message, obj);
-        hasWarned = true;
     }
 
     /**
@@ -196,7 +394,6 @@ public class ValidationLogger {
      */
     public void error(String message, Object obj) {
         log(LEVEL.Error, message, obj);
-        hasErrors = true;
     }
 
     /**
@@ -204,8 +401,8 @@ public class ValidationLogger {
      * 
      * @return true, if successful
      */
-    public boolean hasWarnings() {
-        return hasWarned;
+    public synchronized boolean hasWarnings() {
+        return levelCounts[LEVEL.Warning.ordinal()] > 0;
     }
 
     /**
@@ -213,8 +410,8 @@ public class ValidationLogger {
      * 
      * @return true, if successful
      */
-    public boolean hasErrors() {
-        return hasErrors;
+    public synchronized boolean hasErrors() {
+        return levelCounts[LEVEL.Error.ordinal()] > 0;
     }
 
     /**
@@ -223,8 +420,8 @@ public class ValidationLogger {
     public static class Message {
         private final LEVEL level;
         private final String message; // Free-text explanatory message.
-        private Object parentPanelObject;
-        private JLabel label;
+        private final Object parentPanelObject; // indexed by the logger, hence immutable
+        private final String ruleId;
 
         /**
          * Instantiates a new message.
@@ -234,9 +431,22 @@ public class ValidationLogger {
          * @param parentPanelObject
          */
         public Message(LEVEL level, String message, Object parentPanelObject) {
+            this(level, message, parentPanelObject, null);
+        }
+
+        /**
+         * Instantiates a new message.
+         * 
+         * @param level the level
+         * @param message the message
+         * @param parentPanelObject
+         * @param ruleId the id of the rule that reported the message; may be null
+         */
+        public Message(LEVEL level, String message, Object parentPanelObject, String ruleId) {
             this.level = level;
             this.message = message;
             this.parentPanelObject = parentPanelObject;
+            this.ruleId = ruleId;
         }
 
         /**
@@ -256,10 +466,10 @@ public class ValidationLogger {
         }
 
         /**
-         * @param parentPanelObject the parentPanelObject to set
+         * @return the id of the rule that reported the message; null for general messages
          */
-        public void setParentPanelObject(Object parentPanelObject) {
-            this.parentPanelObject = parentPanelObject;
+        public String getRuleId() {
+            return ruleId;
         }
 
         /**
@@ -272,17 +482,16 @@ public class ValidationLogger {
         }
 
         /**
-         * @return the label
+         * Gets the icon of the message level. The icon is shared by all messages of the level.
+         * 
+         * @return the icon, or null if the message has no level
          */
-        public JLabel getLabel() {
-            return label;
-        }
+        public Icon getIcon() {
+            if (level != null) {
+                return IconRegistry.getIcon("/icons/validation_" + level.toString() + ".png");
+            }
 
-        /**
-         * @param label the label to set
-         */
-        public void setLabel(JLabel label) {
-            this.label = label;
+            return null;
         }
 
         /** {@inheritDoc} */
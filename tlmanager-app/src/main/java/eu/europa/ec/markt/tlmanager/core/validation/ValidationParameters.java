@@ -29,6 +29,8 @@ public class ValidationParameters {
 
     private boolean listIsClosed;
 
+    private boolean parallel;
+
     /**
      * @return the listIsClosed
      */
@@ -42,4 +44,18 @@ public class ValidationParameters {
     public void setListIsClosed(boolean listIsClosed) {
         this.listIsClosed = listIsClosed;
     }
+
+    /**
+     * @return true, if independent rules are executed in parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @param parallel whether independent rules are executed in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 }
\ No newline at end of file
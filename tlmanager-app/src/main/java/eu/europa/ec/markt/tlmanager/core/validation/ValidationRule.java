@@ -0,0 +1,213 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single validation rule, as registered in the {@code ValidationRuleRegistry}. A rule belongs to one of the two validation
+ * phases and may be disabled; it also keeps track of how often it was executed, how much time that took and what it found.
+ *
+ *
+ */
+
+public abstract class ValidationRule implements ValidationRuleMBean {
+
+	/**
+	 * The validation phases; the rules of a phase are only executed if the previous phase did not report any error.
+	 */
+	public enum Phase {
+		MANDATORY, RULE
+	}
+
+	/**
+	 * The part of the list a rule depends on. Used to execute only the rules that are affected by a change.
+	 */
+	public enum Scope {
+		/** Scheme information and pointers; anything outside of the trust service providers. */
+		LIST,
+		/** The trust service providers themselves. */
+		PROVIDER,
+		/** Every service with its histories and extensions on its own; services are never compared with each other. */
+		SERVICE,
+		/** All services, compared with each other. */
+		ALL_SERVICES
+	}
+
+	/**
+	 * The highest level of the messages a rule may report.
+	 */
+	public enum Severity {
+		ERROR, WARNING
+	}
+
+	private final String id;
+	private final Phase phase;
+	private final Severity severity;
+	private final Scope scope;
+	private volatile boolean enabled = true;
+
+	private final AtomicLong executions = new AtomicLong();
+	private final AtomicLong executionNanos = new AtomicLong();
+	private final AtomicLong visitedObjects = new AtomicLong();
+	private final AtomicLong reportedMessages = new AtomicLong();
+
+	/**
+	 * Instantiates a new validation rule.
+	 *
+	 * @param id the unique id of the rule
+	 * @param phase the phase the rule belongs to
+	 * @param severity the highest level of the messages the rule reports
+	 */
+	protected ValidationRule(String id, Phase phase, Severity severity) {
+		this(id, phase, severity, Scope.LIST);
+	}
+
+	/**
+	 * Instantiates a new validation rule.
+	 *
+	 * @param id the unique id of the rule
+	 * @param phase the phase the rule belongs to
+	 * @param severity the highest level of the messages the rule reports
+	 * @param scope the part of the list the rule depends on
+	 */
+	protected ValidationRule(String id, Phase phase, Severity severity, Scope scope) {
+		this.id = id;
+		this.phase = phase;
+		this.severity = severity;
+		this.scope = scope;
+	}
+
+	/**
+	 * Executes the rule; all findings are reported to the logger of the given validation.
+	 *
+	 * @param validation the validation the rule is executed for
+	 */
+	abstract void check(Validation validation);
+
+	/**
+	 * Adds the statistics of a validation to the totals of the rule.
+	 *
+	 * @param statistics the statistics of the rule for one validation
+	 */
+	void record(RuleStatistics statistics) {
+		executions.addAndGet(statistics.getExecutions());
+		executionNanos.addAndGet(statistics.getNanos());
+		visitedObjects.addAndGet(statistics.getVisitedObjects());
+		reportedMessages.addAndGet(statistics.getMessages());
+	}
+
+	/**
+	 * @return the unique id of the rule
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return the phase the rule belongs to
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getPhaseName() {
+		return phase.name();
+	}
+
+	/**
+	 * @return the highest level of the messages the rule reports
+	 */
+	public Severity getSeverity() {
+		return severity;
+	}
+
+	/**
+	 * @return true, if the rule checks every service on its own; it may then be executed for any subset of the services
+	 */
+	public boolean isPerService() {
+		return scope == Scope.SERVICE;
+	}
+
+	/**
+	 * @return the part of the list the rule depends on
+	 */
+	public Scope getScope() {
+		return scope;
+	}
+
+	/**
+	 * @return true, if the rule contacts servers; it is then not executed again when a single object was changed
+	 */
+	public boolean isRemote() {
+		return false;
+	}
+
+	/**
+	 * @return true, if the rule is executed during validation
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled whether the rule is executed during validation
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return how often the rule was executed since the start of the application
+	 */
+	public long getExecutions() {
+		return executions.get();
+	}
+
+	/**
+	 * @return the total time all executions of the rule took, in nanoseconds
+	 */
+	public long getExecutionNanos() {
+		return executionNanos.get();
+	}
+
+	/**
+	 * @return the total number of objects the rule checked since the start of the application
+	 */
+	public long getVisitedObjects() {
+		return visitedObjects.get();
+	}
+
+	/**
+	 * @return the total number of messages the rule reported since the start of the application
+	 */
+	public long getReportedMessages() {
+		return reportedMessages.get();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return id;
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+/**
+ * The management interface of a {@code ValidationRule}; the counters sum up all executions since the start of the
+ * application. Published if {@code tlmanager.validation.jmx} is set.
+ *
+ *
+ */
+
+public interface ValidationRuleMBean {
+
+	/**
+	 * @return the unique id of the rule
+	 */
+	String getId();
+
+	/**
+	 * @return the name of the phase the rule belongs to
+	 */
+	String getPhaseName();
+
+	/**
+	 * @return true, if the rule is executed during validation
+	 */
+	boolean isEnabled();
+
+	/**
+	 * @param enabled whether the rule is executed during validation
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * @return how often the rule was executed
+	 */
+	long getExecutions();
+
+	/**
+	 * @return the total time all executions of the rule took, in nanoseconds
+	 */
+	long getExecutionNanos();
+
+	/**
+	 * @return the total number of objects the rule checked
+	 */
+	long getVisitedObjects();
+
+	/**
+	 * @return the total number of messages the rule reported
+	 */
+	long getReportedMessages();
+}
@@ -0,0 +1,141 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.ec.markt.tlmanager.core.Configuration;
+
+/**
+ * Holds all validation rules in the order in which they are executed. The registry is built once per application; rules are
+ * looked up by their id, e.g. to disable them. If configured, every rule is published as an MBean, so that its statistics
+ * can be watched with any JMX console.
+ *
+ *
+ */
+
+public final class ValidationRuleRegistry {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ValidationRuleRegistry.class);
+
+	private static final String JMX_DOMAIN = "eu.europa.ec.markt.tlmanager";
+
+	private static final ValidationRuleRegistry INSTANCE = new ValidationRuleRegistry(Validation.createRules());
+
+	static {
+		if (Configuration.getInstance().isValidationJmx()) {
+			INSTANCE.registerMBeans();
+		}
+	}
+
+	private final List<ValidationRule> rules;
+	private final Map<String, ValidationRule> rulesById;
+
+	private ValidationRuleRegistry(List<ValidationRule> rules) {
+		this.rules = Collections.unmodifiableList(new ArrayList<ValidationRule>(rules));
+		this.rulesById = new LinkedHashMap<String, ValidationRule>();
+		for (ValidationRule rule : rules) {
+			if (rulesById.put(rule.getId(), rule) != null) {
+				throw new IllegalStateException("Duplicate validation rule " + rule.getId());
+			}
+		}
+	}
+
+	private void registerMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ValidationRule rule : rules) {
+			try {
+				ObjectName name = new ObjectName(JMX_DOMAIN + ":type=ValidationRule,name=" + ObjectName.quote(rule.getId()));
+				server.registerMBean(new StandardMBean(rule, ValidationRuleMBean.class), name);
+			} catch (JMException ex) {
+				LOG.warn("Unable to publish the validation rule " + rule.getId() + ": " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @return the registry
+	 */
+	public static ValidationRuleRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return all rules, in order of execution
+	 */
+	public List<ValidationRule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Returns the enabled rules of a phase, in order of execution.
+	 *
+	 * @param phase the phase
+	 * @return the enabled rules of the phase
+	 */
+	public List<ValidationRule> getEnabledRules(ValidationRule.Phase phase) {
+		List<ValidationRule> result = new ArrayList<ValidationRule>();
+		for (ValidationRule rule : rules) {
+			if ((rule.getPhase() == phase) && rule.isEnabled()) {
+				result.add(rule);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the rule with the given id.
+	 *
+	 * @param id the id of the rule
+	 * @return the rule, or null if there is none
+	 */
+	public ValidationRule getRule(String id) {
+		return rulesById.get(id);
+	}
+
+	/**
+	 * Enables or disables a rule.
+	 *
+	 * @param id the id of the rule
+	 * @param enabled whether the rule is executed during validation
+	 * @throws IllegalArgumentException if there is no rule with this id
+	 */
+	public void setEnabled(String id, boolean enabled) {
+		ValidationRule rule = getRule(id);
+		if (rule == null) {
+			throw new IllegalArgumentException("Unknown validation rule " + id);
+		}
+		rule.setEnabled(enabled);
+	}
+}
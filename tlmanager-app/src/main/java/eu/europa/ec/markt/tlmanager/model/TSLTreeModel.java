@@ -22,9 +22,11 @@ package eu.europa.ec.markt.tlmanager.model;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
@@ -39,6 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.ec.markt.tlmanager.TSLComposer;
 import eu.europa.ec.markt.tlmanager.TSLComposerEvent;
+import eu.europa.ec.markt.tlmanager.TSLDocument;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.ExtensionNode;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.HistoryNode;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.PointerNode;
@@ -67,6 +70,9 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
     private static final Logger LOG = LoggerFactory.getLogger(TSLTreeModel.class);
     private TSLComposer composer;
 
+    /** The user objects that were edited since their node was last left. */
+    private final Set<Object> editedUserObjects = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
     /**
      * A {@code Comparator} for comparing {@code TSLDataNode}'s in a lexicographical way.
      */
@@ -96,6 +102,7 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
 
         if (parent instanceof TSLDataNode) {
             TSLDataNode tslDataNode = (TSLDataNode) parent;
+            composer.ensureChildrenCreated((DefaultMutableTreeNode) parent);
             List<Object> children = tslDataNode.getChildren();
 
             return children;
@@ -119,7 +126,13 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
 
     @Override
     public boolean isLeaf(Object node) {
-        boolean isLeaf = getChildren(node).isEmpty();
+        boolean isLeaf;
+        if ((node instanceof DefaultMutableTreeNode) && !composer.areChildrenCreated((DefaultMutableTreeNode) node)) {
+            // don't create the children of every visible node, just to draw the expand handles
+            isLeaf = !composer.hasChildObjects(((DefaultMutableTreeNode) node).getUserObject());
+        } else {
+            isLeaf = getChildren(node).isEmpty();
+        }
         LOG.trace("The node {} {} a leaf node", new Object[]{node, isLeaf ? "is" : "isn't"});
         return isLeaf;
     }
@@ -130,6 +143,42 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
         return getChildren(parent).indexOf(child);
     }
 
+    /**
+     * Resolves the path of the node that represents a user object. Nodes on the path are created, if they were not
+     * created yet.
+     *
+     * @param userObject the user object
+     * @return the path, or null if there is no node for the object
+     */
+    public TreeNode[] resolveTreePath(Object userObject) {
+        TreeNode[] path = composer.getValidationAssociations().get(userObject);
+        if (path != null) {
+            return path;
+        }
+        List<Object> userObjects = composer.findUserObjectPath(userObject);
+        DefaultMutableTreeNode node = (DefaultMutableTreeNode) getRoot();
+        if ((userObjects == null) || (node == null) || (node.getUserObject() != userObjects.get(0))) {
+            return null;
+        }
+        for (Object next : userObjects.subList(1, userObjects.size())) {
+            composer.ensureChildrenCreated(node);
+            DefaultMutableTreeNode child = null;
+            for (int i = 0; (i < node.getChildCount()) && (child == null); i++) {
+                DefaultMutableTreeNode candidate = (DefaultMutableTreeNode) node.getChildAt(i);
+                if (candidate.getUserObject() == next) {
+                    child = candidate;
+                }
+            }
+            if (child == null) {
+                return null;
+            }
+            node = child;
+        }
+        path = node.getPath();
+        composer.addValidationAssociation(userObject, path);
+        return path;
+    }
+
     /**
      * The TSLTreeModel is an adapter between JTree and the TSLComposer. At the construction time, this TSLTreeModel
      * registers himself to the TSLComposer. Every change made to the TSLComposer will trigger this update method.
@@ -152,10 +201,15 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
             } else if (event.getEventCode().equals(TSLComposerEvent.SORT_NODE)) {
                 // in this case, 'parentNode' is the actual node on which sort was called
                 fireModelChanged(data, parentNode.getPath());
+            } else if (event.getEventCode().equals(TSLComposerEvent.SWITCH_TSL)) {
+                // in this case, 'data' is the list to show; its nodes were created before
+                TSLDocument document = (TSLDocument) data;
+                super.setRoot(document != null ? document.getRootNode() : null);
             } else if (data != null) {
                 if (data instanceof TrustStatusListType) {
                     TSLRootNode tslRootNode = new TSLRootNode((TrustStatusListType) data);
                     super.setRoot(tslRootNode);
+                    composer.setRootNode(tslRootNode);
                     fireModelChanged(data, tslRootNode.getPath());
 
                 } else if (data instanceof OtherTSLPointerType) {
@@ -216,6 +270,25 @@ public class TSLTreeModel extends DefaultTreeModel implements TreeModel, Observe
         }
     }
 
+    /**
+     * Remembers that the user edited the data of a node.
+     *
+     * @param userObject the user object of the node
+     */
+    public void markEdited(Object userObject) {
+        editedUserObjects.add(userObject);
+    }
+
+    /**
+     * Forgets that the user edited the data of a node.
+     *
+     * @param userObject the user object of the node
+     * @return true, if the data was edited since the last call
+     */
+    public boolean clearEdited(Object userObject) {
+        return editedUserObjects.remove(userObject);
+    }
+
     /**
      * Triggers a {@code TreeModelEvent} whenever a node has changed.
      *
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.core.QNames;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionsListType;
@@ -60,7 +61,7 @@ public class ExtensionNode extends DefaultMutableTreeNode implements TSLDataNode
      */
     public ExtensionNode(ExtensionsListType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/extension.png"));
+        icon = IconRegistry.getIcon("/icons/extension.png");
     }
 
     /**
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.model.TSLTreeModel;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryInstanceType;
 
@@ -58,7 +59,7 @@ public class HistoryNode extends DefaultMutableTreeNode implements TSLDataNode {
      */
     public HistoryNode(ServiceHistoryInstanceType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/history.png"));
+        icon = IconRegistry.getIcon("/icons/history.png");
     }
 
     /**
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.core.QNames;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.util.Util;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.AnyType;
@@ -62,7 +63,7 @@ public class PointerNode extends DefaultMutableTreeNode implements TSLDataNode {
      */
     public PointerNode(OtherTSLPointerType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/pointer.png"));
+        icon = IconRegistry.getIcon("/icons/pointer.png");
     }
 
     /**
@@ -20,6 +20,7 @@
  */
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.ecc.QualificationElementType;
 
@@ -57,7 +58,7 @@ public class QualificationNode extends DefaultMutableTreeNode implements TSLData
      */
     public QualificationNode(QualificationElementType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/qualification.png"));
+        icon = IconRegistry.getIcon("/icons/qualification.png");
     }
 
     /**
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.model.TSLTreeModel;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.util.Util;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceType;
@@ -46,6 +47,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 public class ServiceNode extends DefaultMutableTreeNode implements TSLDataNode {
 
     private ImageIcon icon;
+    private String label;
 
     /**
      * Instantiates a new service node.
@@ -61,7 +63,7 @@ public class ServiceNode extends DefaultMutableTreeNode implements TSLDataNode {
      */
     public ServiceNode(TSPServiceType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/service.png"));
+        icon = IconRegistry.getIcon("/icons/service.png");
     }
 
     /**
@@ -151,14 +153,18 @@ public class ServiceNode extends DefaultMutableTreeNode implements TSLDataNode {
     /** {@inheritDoc} */
     @Override
     public String getLabel() {
-        // don't cache this label, as it is coming from a MultivaluePanel
-        TSPServiceType tspService = getUserObject();
-        return Util.getValueForLang(tspService.getServiceInformation().getServiceName(), "en");
+        // the label is coming from a MultivaluePanel, the page resets it when the content of the panel has changed
+        if (label == null) {
+            TSPServiceType tspService = getUserObject();
+            label = Util.getValueForLang(tspService.getServiceInformation().getServiceName(), "en");
+        }
+
+        return label;
     }
 
     /** {@inheritDoc} */
     @Override
     public void resetLabel() {
-        // nop
+        label = null;
     }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.model.TSLTreeModel;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
 
@@ -61,7 +62,7 @@ public class TSLRootNode extends DefaultMutableTreeNode implements TSLDataNode {
      */
     public TSLRootNode(TrustStatusListType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/tsl.png"));
+        icon = IconRegistry.getIcon("/icons/tsl.png");
     }
 
     /**
@@ -21,6 +21,7 @@
 package eu.europa.ec.markt.tlmanager.model.treeNodes;
 
 import eu.europa.ec.markt.tlmanager.model.TSLTreeModel;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.util.Util;
 import eu.europa.ec.markt.tlmanager.view.pages.TreeDataPublisher;
 import eu.europa.ec.markt.tsl.jaxb.tsl.TSPType;
@@ -43,6 +44,7 @@ import javax.swing.tree.DefaultMutableTreeNode;
 public class TSPNode extends DefaultMutableTreeNode implements TSLDataNode {
 
     private ImageIcon icon;
+    private String label;
 
     /**
      * Instantiates a new tSP node.
@@ -58,7 +60,7 @@ public class TSPNode extends DefaultMutableTreeNode implements TSLDataNode {
      */
     public TSPNode(TSPType userObject) {
         super(userObject);
-        icon = new ImageIcon(getClass().getResource("/icons/tsp.png"));
+        icon = IconRegistry.getIcon("/icons/tsp.png");
     }
 
     /**
@@ -116,14 +118,18 @@ public class TSPNode extends DefaultMutableTreeNode implements TSLDataNode {
     /** {@inheritDoc} */
     @Override
     public String getLabel() {
-        // don't cache this label, as it is coming from a MultivaluePanel
-        TSPType tsp = getUserObject();
-        return Util.getValueForLang(tsp.getTSPInformation().getTSPName(), "en");
+        // the label is coming from a MultivaluePanel, the page resets it when the content of the panel has changed
+        if (label == null) {
+            TSPType tsp = getUserObject();
+            label = Util.getValueForLang(tsp.getTSPInformation().getTSPName(), "en");
+        }
+
+        return label;
     }
 
     /** {@inheritDoc} */
     @Override
     public void resetLabel() {
-        // nop
+        label = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.swing.ImageIcon;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide registry of the icons of the application. Every icon is decoded once, on first use, and then shared by all
+ * tree nodes, validation messages and buttons that show it.
+ *
+ *
+ */
+
+public final class IconRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IconRegistry.class);
+
+    private static final ConcurrentMap<String, ImageIcon> ICONS = new ConcurrentHashMap<String, ImageIcon>();
+
+    private IconRegistry() {
+    }
+
+    /**
+     * Gets the icon of a classpath resource.
+     *
+     * @param path the absolute path of the resource, e.g. <code>/icons/tsp.png</code>
+     * @return the shared icon, or null if there is no such resource
+     */
+    public static ImageIcon getIcon(String path) {
+        ImageIcon icon = ICONS.get(path);
+        if (icon == null) {
+            URL resource = IconRegistry.class.getResource(path);
+            if (resource == null) {
+                LOG.warn("Icon not found: " + path);
+                return null;
+            }
+            icon = new ImageIcon(resource);
+            ImageIcon previous = ICONS.putIfAbsent(path, icon);
+            if (previous != null) {
+                icon = previous;
+            }
+        }
+        return icon;
+    }
+}
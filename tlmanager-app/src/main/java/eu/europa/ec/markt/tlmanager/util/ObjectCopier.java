@@ -0,0 +1,265 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.w3c.dom.Node;
+
+/**
+ * Deep copies JAXB object trees by copying their fields directly. The fields and the constructor of every JAXB class are
+ * looked up once and cached. Objects that are neither JAXB classes nor one of the known value types are copied by
+ * serialisation.
+ *
+ *
+ */
+
+public final class ObjectCopier {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>();
+
+    static {
+        IMMUTABLE_TYPES.add(String.class);
+        IMMUTABLE_TYPES.add(Boolean.class);
+        IMMUTABLE_TYPES.add(Character.class);
+        IMMUTABLE_TYPES.add(Byte.class);
+        IMMUTABLE_TYPES.add(Short.class);
+        IMMUTABLE_TYPES.add(Integer.class);
+        IMMUTABLE_TYPES.add(Long.class);
+        IMMUTABLE_TYPES.add(Float.class);
+        IMMUTABLE_TYPES.add(Double.class);
+        IMMUTABLE_TYPES.add(BigInteger.class);
+        IMMUTABLE_TYPES.add(BigDecimal.class);
+        IMMUTABLE_TYPES.add(QName.class);
+        IMMUTABLE_TYPES.add(Class.class);
+    }
+
+    private static final Map<Class<?>, ClassCopier> COPIERS = new ConcurrentHashMap<Class<?>, ClassCopier>();
+
+    /** Marks classes that cannot be copied field by field. */
+    private static final ClassCopier NO_COPIER = new ClassCopier(null, null);
+
+    /** Maps the originals to their copies; keeps shared references shared and terminates on cycles. */
+    private final Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+
+    private ObjectCopier() {
+    }
+
+    /**
+     * Deep copies the given object.
+     *
+     * @param object the object to copy
+     * @return the copy, or null if the object is null
+     * @throws Exception if the object cannot be copied
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T object) throws Exception {
+        return (T) new ObjectCopier().copyObject(object);
+    }
+
+    private Object copyObject(Object object) throws Exception {
+        if (object == null) {
+            return null;
+        }
+        Class<?> type = object.getClass();
+        if (IMMUTABLE_TYPES.contains(type) || object instanceof Enum || object instanceof Duration) {
+            return object;
+        }
+
+        Object copy = copies.get(object);
+        if (copy != null) {
+            return copy;
+        }
+
+        if (type.isArray()) {
+            copy = copyArray(object);
+        } else if (object instanceof XMLGregorianCalendar) {
+            copy = ((XMLGregorianCalendar) object).clone();
+        } else if (object instanceof Node) {
+            copy = ((Node) object).cloneNode(true);
+        } else if (object instanceof JAXBElement) {
+            copy = copyElement((JAXBElement<?>) object);
+        } else if (object instanceof List) {
+            copy = copyCollection((List<?>) object, new ArrayList<Object>(((List<?>) object).size()));
+        } else if (object instanceof Map) {
+            copy = copyMap((Map<?, ?>) object);
+        } else {
+            ClassCopier copier = getCopier(type);
+            if (copier != NO_COPIER) {
+                copy = copier.newInstance();
+                copies.put(object, copy);
+                copier.copyFields(object, copy, this);
+            } else if (object instanceof Serializable) {
+                copy = copyBySerialization(object);
+            } else {
+                throw new IllegalArgumentException("Unable to copy an instance of " + type.getName());
+            }
+        }
+        copies.put(object, copy);
+        return copy;
+    }
+
+    private Object copyArray(Object array) throws Exception {
+        Class<?> componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(componentType, length);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(array, 0, copy, 0, length);
+        } else {
+            copies.put(array, copy);
+            Object[] source = (Object[]) array;
+            Object[] target = (Object[]) copy;
+            for (int i = 0; i < length; i++) {
+                target[i] = copyObject(source[i]);
+            }
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object copyElement(JAXBElement<?> element) throws Exception {
+        JAXBElement copy = new JAXBElement(element.getName(), element.getDeclaredType(), element.getScope(),
+                copyObject(element.getValue()));
+        copy.setNil(element.isNil());
+        return copy;
+    }
+
+    private Collection<Object> copyCollection(Collection<?> source, Collection<Object> target) throws Exception {
+        copies.put(source, target);
+        for (Object item : source) {
+            target.add(copyObject(item));
+        }
+        return target;
+    }
+
+    private Map<Object, Object> copyMap(Map<?, ?> source) throws Exception {
+        Map<Object, Object> target = new LinkedHashMap<Object, Object>();
+        copies.put(source, target);
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            target.put(copyObject(entry.getKey()), copyObject(entry.getValue()));
+        }
+        return target;
+    }
+
+    private static Object copyBySerialization(Object object) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        try {
+            oos.writeObject(object);
+        } finally {
+            oos.close();
+        }
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private static ClassCopier getCopier(Class<?> type) {
+        ClassCopier copier = COPIERS.get(type);
+        if (copier == null) {
+            copier = createCopier(type);
+            COPIERS.put(type, copier);
+        }
+        return copier;
+    }
+
+    private static ClassCopier createCopier(Class<?> type) {
+        if (!type.isAnnotationPresent(XmlType.class) && !type.isAnnotationPresent(XmlAccessorType.class)) {
+            return NO_COPIER;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            List<Field> fields = new ArrayList<Field>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return new ClassCopier(constructor, fields.toArray(new Field[fields.size()]));
+        } catch (NoSuchMethodException e) {
+            return NO_COPIER;
+        } catch (SecurityException e) {
+            return NO_COPIER;
+        }
+    }
+
+    /**
+     * The cached constructor and fields of a JAXB class.
+     */
+    private static class ClassCopier {
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+
+        ClassCopier(Constructor<?> constructor, Field[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        Object newInstance() throws Exception {
+            return constructor.newInstance();
+        }
+
+        void copyFields(Object source, Object target, ObjectCopier copier) throws Exception {
+            for (Field field : fields) {
+                Object value = field.get(source);
+                if (field.getType().isPrimitive()) {
+                    field.set(target, value);
+                } else {
+                    field.set(target, copier.copyObject(value));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import eu.europa.ec.markt.tlmanager.core.QNames;
+
+/**
+ * An <code>XMLStreamWriter</code> that removes empty content while it is written and indents its output. It applies the
+ * same rules as {@link Util#removeEmptyNodesFromTheBottom(org.w3c.dom.Node)}, without an intermediate
+ * <code>Document</code>:
+ * <ul>
+ * <li>elements without child elements and without text, or with the text '-', are dropped; so are their parents, if
+ * nothing else is left</li>
+ * <li>tsl:URI elements whose text starts with '-' are dropped</li>
+ * <li>attributes with the value '-' are dropped, xml:lang attributes are cleaned, cf. {@link ItemDuplicator#cleanItem(String)}</li>
+ * <li>empty NextUpdate elements and Qualifier elements with attributes are kept</li>
+ * <li>ds:Signature is written unchanged</li>
+ * </ul>
+ * An element is only buffered until it is known to be kept, i.e. until it has got its first content.
+ *
+ *
+ */
+
+public class PruningXMLStreamWriter implements XMLStreamWriter {
+
+    private final XMLStreamWriter out;
+    private final String encoding;
+    private final String indent;
+
+    // elements that are started but not yet ended; the written ones are always at the bottom
+    private final List<Element> open = new ArrayList<Element>();
+
+    // > 0 while writing the content of a ds:Signature
+    private int signatureDepth;
+
+    // the last element was started with writeEmptyElement and ends with the next event
+    private boolean emptyElementPending;
+
+    /**
+     * The default constructor for PruningXMLStreamWriter.
+     *
+     * @param out      the writer to write to
+     * @param encoding the encoding to declare
+     * @param indent   the amount of indentation
+     */
+    public PruningXMLStreamWriter(XMLStreamWriter out, String encoding, int indent) {
+        this.out = out;
+        this.encoding = encoding;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < indent; i++) {
+            sb.append(' ');
+        }
+        this.indent = sb.toString();
+    }
+
+    private static class Element {
+        private final String prefix;
+        private final String localName;
+        private final String namespaceURI;
+        private final List<String[]> namespaces = new ArrayList<String[]>();
+        private final List<String[]> attributes = new ArrayList<String[]>();
+        private final StringBuilder text = new StringBuilder();
+        private boolean written;
+        private boolean hasChildElements;
+        private boolean mixed;
+
+        Element(String prefix, String localName, String namespaceURI) {
+            this.prefix = prefix;
+            this.localName = localName;
+            this.namespaceURI = namespaceURI;
+        }
+
+        boolean is(String namespace, String name) {
+            return name.equals(localName) && namespace.equals(namespaceURI);
+        }
+    }
+
+    private Element current() {
+        return open.isEmpty() ? null : open.get(open.size() - 1);
+    }
+
+    private static boolean isContent(CharSequence text) {
+        return (text.length() > 0) && !Util.DEFAULT_NO_SELECTION_ENTRY.contentEquals(text);
+    }
+
+    private void startElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        closeEmptyElement();
+        if (signatureDepth > 0) {
+            signatureDepth++;
+            writeStart(prefix, localName, namespaceURI, false);
+            return;
+        }
+        Element parent = current();
+        if ((parent != null) && (parent.text.length() > 0)) {
+            // text in front of a child element
+            if (isContent(parent.text)) {
+                writeStartTags(parent);
+                out.writeCharacters(parent.text.toString());
+                parent.mixed = true;
+            }
+            parent.text.setLength(0);
+        }
+        Element element = new Element(prefix, localName, namespaceURI);
+        open.add(element);
+        if (element.is(QNames._Signature_QNAME.getNamespaceURI(), QNames._Signature_QNAME.getLocalPart())) {
+            // never touch ds:Signature !
+            writeStartTags(element);
+            signatureDepth = 1;
+        }
+    }
+
+    /**
+     * Writes the start tags of all buffered elements up to the given one.
+     */
+    private void writeStartTags(Element last) throws XMLStreamException {
+        for (int i = 0; i < open.size(); i++) {
+            Element element = open.get(i);
+            if (!element.written) {
+                writeStartTag(i, false);
+            }
+            if (element == last) {
+                return;
+            }
+        }
+    }
+
+    private void writeStartTag(int depth, boolean empty) throws XMLStreamException {
+        Element element = open.get(depth);
+        if (depth > 0) {
+            Element parent = open.get(depth - 1);
+            parent.hasChildElements = true;
+            if (!parent.mixed) {
+                writeIndentation(depth);
+            }
+        }
+        writeStart(element.prefix, element.localName, element.namespaceURI, empty);
+        for (String[] namespace : element.namespaces) {
+            if ((namespace[0] == null) || namespace[0].isEmpty()) {
+                out.writeDefaultNamespace(namespace[1]);
+            } else {
+                out.writeNamespace(namespace[0], namespace[1]);
+            }
+        }
+        for (String[] attribute : element.attributes) {
+            if ((attribute[1] == null) || attribute[1].isEmpty()) {
+                out.writeAttribute(attribute[2], attribute[3]);
+            } else {
+                out.writeAttribute(attribute[0], attribute[1], attribute[2], attribute[3]);
+            }
+        }
+        element.written = true;
+    }
+
+    private void writeStart(String prefix, String localName, String namespaceURI, boolean empty) throws XMLStreamException {
+        if (namespaceURI == null) {
+            if (empty) {
+                out.writeEmptyElement(localName);
+            } else {
+                out.writeStartElement(localName);
+            }
+        } else {
+            String elementPrefix = (prefix == null) ? "" : prefix;
+            if (empty) {
+                out.writeEmptyElement(elementPrefix, localName, namespaceURI);
+            } else {
+                out.writeStartElement(elementPrefix, localName, namespaceURI);
+            }
+        }
+    }
+
+    private void writeIndentation(int depth) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder(1 + (depth * indent.length()));
+        sb.append('\n');
+        for (int i = 0; i < depth; i++) {
+            sb.append(indent);
+        }
+        out.writeCharacters(sb.toString());
+    }
+
+    private boolean isException(Element element) {
+        if (element.localName.equals(QNames._NextUpdate_QNAME.getLocalPart())) {
+            return true;
+        }
+        return element.localName.equals("Qualifier") && !element.attributes.isEmpty();
+    }
+
+    private void closeEmptyElement() throws XMLStreamException {
+        if (emptyElementPending) {
+            emptyElementPending = false;
+            writeEndElement();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        closeEmptyElement();
+        if (signatureDepth > 0) {
+            signatureDepth--;
+            out.writeEndElement();
+            if (signatureDepth == 0) {
+                open.remove(open.size() - 1);
+            }
+            return;
+        }
+        int depth = open.size() - 1;
+        Element element = open.get(depth);
+        String text = element.text.toString();
+        if (element.written) {
+            if (isContent(text)) {
+                out.writeCharacters(text);
+            } else if (element.hasChildElements && !element.mixed) {
+                writeIndentation(depth);
+            }
+            out.writeEndElement();
+        } else if (isContent(text)) {
+            if (!(element.is(QNames.TSL_NAMESPACE, QNames._URI) && text.startsWith(Util.DEFAULT_NO_SELECTION_ENTRY))) {
+                writeStartTags(element);
+                out.writeCharacters(text);
+                out.writeEndElement();
+            }
+        } else if ((depth == 0) || isException(element)) {
+            // the root element is always written
+            if (depth > 0) {
+                writeStartTags(open.get(depth - 1));
+            }
+            writeStartTag(depth, true);
+        }
+        open.remove(depth);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        startElement(null, localName, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        startElement(out.getPrefix(namespaceURI), localName, namespaceURI);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        startElement(prefix, localName, namespaceURI);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(namespaceURI, localName);
+        emptyElementPending = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeStartElement(prefix, localName, namespaceURI);
+        emptyElementPending = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        emptyElementPending = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        closeEmptyElement();
+        while (!open.isEmpty()) {
+            writeEndElement();
+        }
+        out.writeEndDocument();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws XMLStreamException {
+        out.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws XMLStreamException {
+        out.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        writeAttribute(null, null, localName, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+        Element element = current();
+        if ((signatureDepth > 0) || (element == null) || element.written) {
+            if ((namespaceURI == null) || namespaceURI.isEmpty()) {
+                out.writeAttribute(localName, value);
+            } else {
+                out.writeAttribute(prefix, namespaceURI, localName, value);
+            }
+            return;
+        }
+        String cleanedValue = value;
+        if ("lang".equals(localName)) {
+            cleanedValue = ItemDuplicator.cleanItem(value);
+        }
+        if (!cleanedValue.equals(Util.DEFAULT_NO_SELECTION_ENTRY)) {
+            element.attributes.add(new String[]{prefix, namespaceURI, localName, cleanedValue});
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(out.getPrefix(namespaceURI), namespaceURI, localName, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        Element element = current();
+        if ((signatureDepth > 0) || (element == null) || element.written) {
+            if ((prefix == null) || prefix.isEmpty()) {
+                out.writeDefaultNamespace(namespaceURI);
+            } else {
+                out.writeNamespace(prefix, namespaceURI);
+            }
+            return;
+        }
+        element.namespaces.add(new String[]{prefix, namespaceURI});
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        writeNamespace(null, namespaceURI);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        writeContentEvent();
+        out.writeComment(data);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        writeContentEvent();
+        out.writeProcessingInstruction(target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        writeContentEvent();
+        out.writeProcessingInstruction(target, data);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        writeCharacters(data);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        writeContentEvent();
+        out.writeDTD(dtd);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        writeContentEvent();
+        out.writeEntityRef(name);
+    }
+
+    /**
+     * Prepares writing an event that is never dropped; the enclosing elements are written with all buffered text.
+     */
+    private void writeContentEvent() throws XMLStreamException {
+        closeEmptyElement();
+        Element element = current();
+        if ((signatureDepth == 0) && (element != null)) {
+            writeStartTags(element);
+            element.mixed = true;
+            if (element.text.length() > 0) {
+                out.writeCharacters(element.text.toString());
+                element.text.setLength(0);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        out.writeStartDocument(encoding, "1.0");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        out.writeStartDocument(encoding, version);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        out.writeStartDocument(this.encoding, version);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        closeEmptyElement();
+        Element element = current();
+        if ((signatureDepth > 0) || (element == null)) {
+            out.writeCharacters(text);
+        } else {
+            element.text.append(text);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return out.getPrefix(uri);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        out.setPrefix(prefix, uri);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        out.setDefaultNamespace(uri);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        out.setNamespaceContext(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return out.getNamespaceContext();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getProperty(String name) {
+        return out.getProperty(name);
+    }
+}
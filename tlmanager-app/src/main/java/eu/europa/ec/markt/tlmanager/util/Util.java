@@ -22,45 +22,36 @@ package eu.europa.ec.markt.tlmanager.util;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.Iterator;
 import java.util.List;
 
 import javax.swing.*;
 import javax.xml.bind.JAXBElement;
 import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
-import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import eu.europa.ec.markt.tlmanager.core.QNames;
+import eu.europa.ec.markt.tlmanager.core.validation.URLReachabilityChecker;
 import eu.europa.ec.markt.tsl.jaxb.tsl.AnyType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.ExtensionsListType;
@@ -137,19 +128,15 @@ public class Util {
     }
 
     /**
-     * Creates a <code>Transformer</code> with a configuration that affects the output of the transformed xml.
+     * Returns a <code>Transformer</code> with a configuration that affects the output of the transformed xml. The
+     * transformer is reused by the calling thread; cf. {@link XmlFactories#getPrettyTransformer(int)}.
      *
      * @param indent the amount of indentation
      * @return the transformer
      * @throws javax.xml.transform.TransformerConfigurationException
      */
     public static Transformer createPrettyTransformer(int indent) throws TransformerConfigurationException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", String.valueOf(indent));
-
-        return transformer;
+        return XmlFactories.getPrettyTransformer(indent);
     }
 
     /**
@@ -204,7 +191,8 @@ public class Util {
         NamedNodeMap attributes = node.getAttributes();
         boolean nodeHasAttribute = false;
         if (attributes != null && attributes.getLength() > 0) {
-            for (int i = 0; i < attributes.getLength(); i++) {
+            // backwards, as attributes may be removed
+            for (int i = attributes.getLength() - 1; i >= 0; i--) {
                 Node item = attributes.item(i);
                 if (item.getLocalName().equals("lang")) {
                     handleLangAttribute(item);
@@ -250,7 +238,7 @@ public class Util {
 
     /**
      * Recursively removes empty nodes. Beware that a node with an attribute and no content, may not be considered
-     * empty.
+     * empty. Children are pruned before their parent, so that the emptiness of every node is determined once.
      *
      * @param node the node
      */
@@ -263,45 +251,44 @@ public class Util {
                 return; // never touch ds:Signature !
             }
 
-            NodeList nodeList = node.getChildNodes();
-
             removeEmptyAttributes(node);
-            for (int i = 0; i < nodeList.getLength(); i++) {
-                Node childNode = nodeList.item(i);
+            Node childNode = node.getFirstChild();
+            while (childNode != null) {
+                final Node nextNode = childNode.getNextSibling();
 
                 // remove child nodes first
                 removeEmptyNodesFromTheBottom(childNode);
 
                 removeUndesiredContent(childNode);
 
-                String textContent = childNode.getTextContent();
-
-                final boolean noChildNodes = childNode.getChildNodes().getLength() == 0;
-                final boolean textContentIsEmpty = textContent.isEmpty() || textContent.equals(Util.DEFAULT_NO_SELECTION_ENTRY);
-                if (!textContentIsEmpty) {
-
-                    if (textContent.startsWith(Util.DEFAULT_NO_SELECTION_ENTRY)) {
-
-                        final String localName = childNode.getLocalName();
-                        final String namespaceURI = childNode.getNamespaceURI();
-                        if (QNames._URI.equals(localName) && QNames.TSL_NAMESPACE.equals(namespaceURI)) {
-
-                            if (!nodeIsException(childNode)) {
-                                childNode.getParentNode().removeChild(childNode);
-                                i--;
-                            }
-                        }
-                    }
-                } if (textContentIsEmpty && noChildNodes) {
-                    if (!nodeIsException(childNode)) {
-                        childNode.getParentNode().removeChild(childNode);
-                        i--;
-                    }
+                if (isEmptyNode(childNode) && !nodeIsException(childNode)) {
+                    node.removeChild(childNode);
                 }
+                childNode = nextNode;
             }
         }
     }
 
+    /**
+     * Checks whether a node, whose children were already pruned, is empty: it has no children and no value (or just
+     * the default value), or it is a tsl:URI with a default value.
+     *
+     * @param node the node
+     * @return true, if the node is to be removed
+     */
+    private static boolean isEmptyNode(Node node) {
+        if (!node.hasChildNodes()) {
+            final String value = node.getNodeValue(); // null for elements
+            return value == null || value.isEmpty() || value.equals(Util.DEFAULT_NO_SELECTION_ENTRY);
+        }
+        if (QNames._URI.equals(node.getLocalName()) && QNames.TSL_NAMESPACE.equals(node.getNamespaceURI())) {
+            // the text of a URI is short, so it may be concatenated
+            final String textContent = node.getTextContent();
+            return textContent.startsWith(Util.DEFAULT_NO_SELECTION_ENTRY) && !textContent.equals(Util.DEFAULT_NO_SELECTION_ENTRY);
+        }
+        return false;
+    }
+
     private static boolean nodeIsException(Node node) {
         // special checks for specific nodes
         if (node.getLocalName() != null) {
@@ -327,101 +314,112 @@ public class Util {
     }
 
     /**
-     * Sorts all children of the provided node via respective comparator's.
+     * Sorts the trust service providers, their services and the pointers to other lists below the provided node. The
+     * sort key of each element is extracted once; all other children keep their order and are not moved.
      *
      * @param parent     the node to start from
      * @param descending true, if in lexicographical order
      */
     public static void sortChildNodes(Node parent, boolean descending) {
-
-        List<Node> nodes = new ArrayList<Node>();
-        NodeList childNodeList = parent.getChildNodes();
-        if (childNodeList.getLength() > 0) {
-            for (int i = 0; i < childNodeList.getLength(); i++) {
-                Node node = childNodeList.item(i);
-                sortChildNodes(node, descending);
-                nodes.add(node);
+        String sortableName = null;
+        int sortableCount = 0;
+        boolean mixed = false;
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                mixed = true;
+                continue;
             }
-            Comparator comp = new Comparator<Object>() {
-                @Override
-                public int compare(Object arg0, Object arg1) {
-                    if (arg0 instanceof Element && arg1 instanceof Element) {
-                        Element e1 = (Element) arg0;
-                        Element e2 = (Element) arg1;
-                        String lNameE1 = e1.getLocalName();
-                        String lNameE2 = e2.getLocalName();
-                        String name = "";
-                        if (lNameE1.equals(QNames._TSPService_QNAME.getLocalPart()) && lNameE2.equals(QNames._TSPService_QNAME.getLocalPart())) {
-                            name = QNames._ServiceName;
-                            return getTextContent(e2, name).compareTo(getTextContent(e1, name));
-/*
-                        } else if (lNameE1.equals(QNames._ServiceHistoryInstance_QNAME.getLocalPart()) && lNameE2.equals(QNames._ServiceHistoryInstance_QNAME.getLocalPart())) {
-                            name = QNames._StatusStartingTime;
-                            // The latest date shall be placed below others: descending order
-                            // if there's no date at all, place this servicehistoryinstance at the bottom
-                            String time1 = getTextContent(e1, name);
-                            String time2 = getTextContent(e2, name);
-
-                            if (time1.isEmpty()) {
-                                return -1;
-                            }
-                            if (time2.isEmpty()) {
-                                return 1;
-                            }
-
-                            String utcformat = "yyyy-MM-dd'T'HH:mm:ss'Z'";
-                            SimpleDateFormat zulu = new SimpleDateFormat(utcformat);
-
-                            try {
-                                Date date1 = zulu.parse(time1);
-                                Date date2 = zulu.parse(time2);
-
-                                return -date2.compareTo(date1);
-                            } catch (ParseException e) {
-                                LOG.warn("Unable to parse one of the following dates with (" +
-                                      utcformat + "): " + time1 + " or " + time2);
-                            }
-*/
-                        } else if (lNameE1.equals(QNames._TrustServiceProvider_QNAME.getLocalPart()) && lNameE2.equals(QNames._TrustServiceProvider_QNAME.getLocalPart())) {
-                            name = QNames._TSPName;
-                            return getTextContent(e2, name).compareTo(getTextContent(e1, name));
-                        } else if (lNameE1.equals(QNames._OtherTSLPointer_QNAME.getLocalPart()) && lNameE2.equals(QNames._OtherTSLPointer_QNAME.getLocalPart())) {
-                            name = QNames._SchemeTerritory_QNAME.getLocalPart();
-                            String tslLoc = QNames._TSLLocation;
-
-                            String label1 = getTextContent(e1, name);
-                            String label2 = getTextContent(e2, name);
-                            String extension = "pdf";
-                            if (label1.substring(0, 2).equals(label2.substring(0, 2))) {
-                                // if one extension is 'pdf', put it at the bottom
-                                // this way, all machine processable versions should be at the top (xml, or zip, or whatever)
-                                String tslLoc1 = getTextContent(e1, tslLoc);
-                                String tslLoc2 = getTextContent(e2, tslLoc);
-                                if (tslLoc1.endsWith(extension) && !tslLoc2.endsWith(extension)) {
-                                    return 1;
-                                } else if (!tslLoc1.endsWith(extension) && tslLoc2.endsWith(extension)) {
-                                    return -1;
-                                }
-                            }
-                            return label2.compareTo(label1);
-                        }
-                        return 0;
-                    } else {
-                        return ((Node) arg0).getNodeName().compareTo(((Node) arg1).getNodeName());
-                    }
-
+            sortChildNodes(child, descending);
+
+            String localName = child.getLocalName();
+            if (isSortable(localName)) {
+                if (sortableName == null) {
+                    sortableName = localName;
+                } else if (!sortableName.equals(localName)) {
+                    mixed = true;
                 }
-            };
-            if (descending) {
-                // if descending is true, get the reverse ordered comparator
-                Collections.sort(nodes, Collections.reverseOrder(comp));
+                sortableCount++;
             } else {
-                Collections.sort(nodes, comp);
+                mixed = true;
+            }
+        }
+
+        if (sortableCount < 2 || mixed) {
+            return;
+        }
+
+        List<SortKey> keys = new ArrayList<SortKey>(sortableCount);
+        List<Node> positions = new ArrayList<Node>(sortableCount);
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (sortableName.equals(child.getLocalName())) {
+                keys.add(new SortKey(child, sortableName));
+                positions.add(child);
             }
+        }
+
+        Comparator<SortKey> comp = SORT_KEY_COMPARATOR;
+        if (!descending) {
+            comp = Collections.reverseOrder(comp);
+        }
+        Collections.sort(keys, comp);
 
-            for (Iterator<Node> iter = nodes.iterator(); iter.hasNext(); ) {
-                Node element = (Node) iter.next();
-                parent.appendChild(element);
+        boolean changed = false;
+        for (int i = 0; i < keys.size() && !changed; i++) {
+            changed = keys.get(i).node != positions.get(i);
+        }
+        if (!changed) {
+            return;
+        }
+
+        // the sortable elements are the only children, so re-appending them in order is enough
+        for (SortKey key : keys) {
+            parent.appendChild(key.node);
+        }
+    }
+
+    private static boolean isSortable(String localName) {
+        return QNames._TSPService_QNAME.getLocalPart().equals(localName)
+                || QNames._TrustServiceProvider_QNAME.getLocalPart().equals(localName)
+                || QNames._OtherTSLPointer_QNAME.getLocalPart().equals(localName);
+    }
+
+    /**
+     * Orders services by name, providers by name and pointers by scheme territory. Among pointers of the same territory,
+     * the ones with a 'pdf' location come first.
+     */
+    private static final Comparator<SortKey> SORT_KEY_COMPARATOR = new Comparator<SortKey>() {
+        @Override
+        public int compare(SortKey k1, SortKey k2) {
+            if (k1.prefix != null && k1.prefix.equals(k2.prefix) && k1.pdf != k2.pdf) {
+                return k1.pdf ? -1 : 1;
+            }
+            return k1.key.compareTo(k2.key);
+        }
+    };
+
+    /**
+     * An element together with the values it is sorted by.
+     */
+    private static class SortKey {
+        private final Node node;
+        private final String key;
+        private final String prefix;
+        private final boolean pdf;
+
+        SortKey(Node node, String localName) {
+            this.node = node;
+            if (QNames._OtherTSLPointer_QNAME.getLocalPart().equals(localName)) {
+                key = getTextContent(node, QNames._SchemeTerritory_QNAME.getLocalPart());
+                prefix = key.length() > 2 ? key.substring(0, 2) : key;
+                pdf = getTextContent(node, QNames._TSLLocation).endsWith("pdf");
+            } else if (QNames._TSPService_QNAME.getLocalPart().equals(localName)) {
+                key = getTextContent(node, QNames._ServiceName);
+                prefix = null;
+                pdf = false;
+            } else {
+                key = getTextContent(node, QNames._TSPName);
+                prefix = null;
+                pdf = false;
             }
         }
     }
@@ -646,34 +644,19 @@ public class Util {
     }
 
     /**
-     * Deep copies a given object by serialisation.
+     * Deep copies a given object.
      *
      * @param oldObj the old obj
      * @return the object
      * @throws Exception the exception
+     * @see ObjectCopier
      */
     public static Object deepCopy(Object oldObj) throws Exception {
-        if (oldObj == null) {
-            return null;
-        }
-        ObjectInputStream ois = null;
-
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ObjectOutputStream oos = new ObjectOutputStream(bos);
         try {
-            oos.writeObject(oldObj);
-            oos.flush();
-            ByteArrayInputStream bin = new ByteArrayInputStream(bos.toByteArray());
-            ois = new ObjectInputStream(bin);
-            return ois.readObject();
+            return ObjectCopier.copy(oldObj);
         } catch (Exception e) {
-            LOG.error("Exception in ObjectCloner = " + e.getMessage());
+            LOG.error("Exception in ObjectCopier = " + e.getMessage());
             throw (e);
-        } finally {
-            oos.close();
-            if (ois != null) {
-                ois.close();
-            }
         }
     }
 
@@ -690,7 +673,7 @@ public class Util {
             XMLGregorianCalendar gc = null;
 
             try {
-                gc = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
+                gc = XmlFactories.getDatatypeFactory().newXMLGregorianCalendar(calendar);
                 gc.setFractionalSecond(null);
                 gc = gc.normalize();
             } catch (DatatypeConfigurationException ex) {
@@ -741,23 +724,17 @@ public class Util {
     }
 
     /**
-     * Checks wether a given url is accessible (results in HTTP 200).
+     * Checks wether a given url is accessible (results in a HTTP success status); cf. {@link URLReachabilityChecker}.
      *
      * @param url the url to check
      * @return true, if the url is accessible
      */
     public static boolean checkURLExists(URL url) {
-        try {
-            HttpURLConnection con = (HttpURLConnection) url.openConnection();
-            con.setRequestMethod("HEAD");
-            int responseCode = con.getResponseCode();
-
-            return (responseCode == HttpURLConnection.HTTP_OK);
-        } catch (Exception ex) {
-            LOG.warn(">>> Exception occurred while checking url: " + url + " with " + ex.getMessage());
-
-            return false;
+        URLReachabilityChecker.Result result = URLReachabilityChecker.getInstance().check(url.toString());
+        if ((result != null) && !result.isReachable()) {
+            LOG.warn(">>> Url " + url + " is not accessible: " + result.getReason());
         }
+        return (result != null) && result.isReachable();
     }
 
     /**
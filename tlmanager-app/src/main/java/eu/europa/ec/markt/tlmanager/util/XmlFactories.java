@@ -0,0 +1,153 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+
+import org.w3c.dom.Document;
+
+/**
+ * Central access to the JAXP factories. Looking up a factory implementation is expensive, so every factory is looked up
+ * once. Factories and the objects they create are not thread-safe in general; builders and transformers are therefore
+ * kept per thread.
+ *
+ *
+ */
+
+public final class XmlFactories {
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    }
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>();
+
+    private static final ThreadLocal<Map<Integer, Transformer>> PRETTY_TRANSFORMERS = new ThreadLocal<Map<Integer, Transformer>>() {
+        @Override
+        protected Map<Integer, Transformer> initialValue() {
+            return new HashMap<Integer, Transformer>();
+        }
+    };
+
+    private static final ThreadLocal<DatatypeFactory> DATATYPE_FACTORY = new ThreadLocal<DatatypeFactory>();
+
+    private XmlFactories() {
+    }
+
+    /**
+     * Creates a new, empty and namespace aware <code>Document</code>.
+     *
+     * @return the document
+     * @throws ParserConfigurationException
+     */
+    public static Document newDocument() throws ParserConfigurationException {
+        DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+        if (documentBuilder == null) {
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            }
+            DOCUMENT_BUILDER.set(documentBuilder);
+        }
+        return documentBuilder.newDocument();
+    }
+
+    /**
+     * Returns a <code>Transformer</code> that writes indented xml. The transformer is reused by the calling thread, so it
+     * must neither be reconfigured nor be passed to another thread.
+     *
+     * @param indent the amount of indentation
+     * @return the transformer
+     * @throws TransformerConfigurationException
+     */
+    public static Transformer getPrettyTransformer(int indent) throws TransformerConfigurationException {
+        Map<Integer, Transformer> transformers = PRETTY_TRANSFORMERS.get();
+        Transformer transformer = transformers.get(indent);
+        if (transformer == null) {
+            synchronized (TRANSFORMER_FACTORY) {
+                transformer = TRANSFORMER_FACTORY.newTransformer();
+            }
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", String.valueOf(indent));
+            transformers.put(indent, transformer);
+        }
+        return transformer;
+    }
+
+    /**
+     * Returns the <code>DatatypeFactory</code> of the calling thread.
+     *
+     * @return the factory
+     * @throws DatatypeConfigurationException
+     */
+    public static DatatypeFactory getDatatypeFactory() throws DatatypeConfigurationException {
+        DatatypeFactory datatypeFactory = DATATYPE_FACTORY.get();
+        if (datatypeFactory == null) {
+            datatypeFactory = DatatypeFactory.newInstance();
+            DATATYPE_FACTORY.set(datatypeFactory);
+        }
+        return datatypeFactory;
+    }
+
+    /**
+     * Returns the shared <code>XMLInputFactory</code>. It is namespace aware, coalesces text and does not support DTDs.
+     * Once configured, the factory may be used to create readers concurrently; it must not be reconfigured.
+     *
+     * @return the factory
+     */
+    public static XMLInputFactory getXMLInputFactory() {
+        return XML_INPUT_FACTORY;
+    }
+
+    /**
+     * Returns the shared <code>XMLOutputFactory</code>. It may be used to create writers concurrently; it must not be
+     * reconfigured.
+     *
+     * @return the factory
+     */
+    public static XMLOutputFactory getXMLOutputFactory() {
+        return XML_OUTPUT_FACTORY;
+    }
+}
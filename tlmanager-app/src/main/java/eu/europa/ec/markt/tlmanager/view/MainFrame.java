@@ -23,14 +23,19 @@ package eu.europa.ec.markt.tlmanager.view;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.*;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
@@ -40,17 +45,22 @@ import org.openide.WizardDescriptor;
 import org.w3c.dom.Document;
 
 import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.TSLDocument;
 import eu.europa.ec.markt.tlmanager.controller.TreePopupCreator;
 import eu.europa.ec.markt.tlmanager.core.Configuration;
 import eu.europa.ec.markt.tlmanager.core.Migration;
 import eu.europa.ec.markt.tlmanager.core.exception.OpenException;
 import eu.europa.ec.markt.tlmanager.core.exception.SaveException;
 import eu.europa.ec.markt.tlmanager.core.signature.SignatureManager;
+import eu.europa.ec.markt.tlmanager.core.validation.Validation;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.Message;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationParameters;
 import eu.europa.ec.markt.tlmanager.model.TSLTreeModel;
 import eu.europa.ec.markt.tlmanager.model.treeNodes.TSLDataNode;
+import eu.europa.ec.markt.tlmanager.util.IconRegistry;
 import eu.europa.ec.markt.tlmanager.view.common.NewServiceStatusPanel;
+import eu.europa.ec.markt.tlmanager.view.common.ProgressDialog;
 import eu.europa.ec.markt.tlmanager.view.pages.PointerToOtherTSLPage;
 import eu.europa.ec.markt.tlmanager.view.pages.QualificationExtensionPage;
 import eu.europa.ec.markt.tlmanager.view.pages.ServiceCurrentStatusInformationPage;
@@ -86,6 +96,9 @@ public class MainFrame extends JFrame implements ActionListener {
     public static final JFileChooser sigSourceFileChooser = new JFileChooser();
 
     private LogDialog logDialog;
+    private JComboBox documentSelector;
+    private JButton closeTSLButton;
+    private boolean updatingDocumentSelector = false;
     private TreeSelectionHandler treeSelectionHandler;
     private List<TreeDataPublisher> treeDataPublisher;
 
@@ -131,6 +144,7 @@ public class MainFrame extends JFrame implements ActionListener {
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
 
         initComponents();
+        initWorkspaceComponents();
 
         tslInformationPage = new TSLInformationPage(tslTree);
         tspInformationPage = new TSPInformationPage(tslTree);
@@ -151,6 +165,19 @@ public class MainFrame extends JFrame implements ActionListener {
         treeSelectionHandler = new TreeSelectionHandler(treeDataPublisher, detailsPanel);
         ToolTipManager.sharedInstance().registerComponent(tslTree);
         tslTree.addTreeSelectionListener(treeSelectionHandler);
+        tslTree.addTreeSelectionListener(new TreeSelectionListener() {
+            @Override
+            public void valueChanged(TreeSelectionEvent e) {
+                // bring the log up to date with the changes done on the node that was left, if it was edited at all
+                TreePath oldPath = e.getOldLeadSelectionPath();
+                if ((oldPath != null) && (oldPath.getLastPathComponent() instanceof TSLDataNode)) {
+                    Object userObject = ((TSLDataNode) oldPath.getLastPathComponent()).getUserObject();
+                    if (treeModel.clearEdited(userObject) && (composer.getValidationLogger() != null)) {
+                        revalidateEdited(userObject);
+                    }
+                }
+            }
+        });
         tslTree.addMouseListener(new TreePopupCreator(composer));
 
         tslTree.setName("tslTree");
@@ -161,6 +188,8 @@ public class MainFrame extends JFrame implements ActionListener {
         saveAsTSLButton.addActionListener(this);
         signTSLButton.addActionListener(this);
         showLogButton.addActionListener(this);
+        documentSelector.addActionListener(this);
+        closeTSLButton.addActionListener(this);
 
         treeModel.addTreeModelListener(new TreeModelListener() {
             @Override
@@ -226,7 +255,7 @@ public class MainFrame extends JFrame implements ActionListener {
 
         jToolBar1.setRollover(true);
 
-        newTSLButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_new.png")));
+        newTSLButton.setIcon(IconRegistry.getIcon("/icons/tsl_new.png"));
         newTSLButton.setMnemonic(uiKeys.getString("MainFrame.menu.new.mnemonic").charAt(0));
         newTSLButton.setText(uiKeys.getString("MainFrame.menu.new")); // NOI18N
         newTSLButton.setFocusable(false);
@@ -235,7 +264,7 @@ public class MainFrame extends JFrame implements ActionListener {
         newTSLButton.setVerticalTextPosition(SwingConstants.BOTTOM);
         jToolBar1.add(newTSLButton);
 
-        openTSLButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_open.png")));
+        openTSLButton.setIcon(IconRegistry.getIcon("/icons/tsl_open.png"));
         openTSLButton.setMnemonic(uiKeys.getString("MainFrame.menu.open.mnemonic").charAt(0));
         openTSLButton.setText(uiKeys.getString("MainFrame.menu.open")); // NOI18N
         openTSLButton.setFocusable(false);
@@ -244,7 +273,7 @@ public class MainFrame extends JFrame implements ActionListener {
         openTSLButton.setVerticalTextPosition(SwingConstants.BOTTOM);
         jToolBar1.add(openTSLButton);
 
-        saveTSLButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_save.png")));
+        saveTSLButton.setIcon(IconRegistry.getIcon("/icons/tsl_save.png"));
         saveTSLButton.setMnemonic(uiKeys.getString("MainFrame.menu.save.mnemonic").charAt(0));
         saveTSLButton.setText(uiKeys.getString("MainFrame.menu.save")); // NOI18N
         saveTSLButton.setEnabled(false);
@@ -254,7 +283,7 @@ public class MainFrame extends JFrame implements ActionListener {
         saveTSLButton.setVerticalTextPosition(SwingConstants.BOTTOM);
         jToolBar1.add(saveTSLButton);
 
-        saveAsTSLButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_save.png")));
+        saveAsTSLButton.setIcon(IconRegistry.getIcon("/icons/tsl_save.png"));
         saveAsTSLButton.setMnemonic('A');
         saveAsTSLButton.setText(uiKeys.getString("MainFrame.menu.saveAs")); // NOI18N
         saveAsTSLButton.setEnabled(false);
@@ -264,7 +293,7 @@ public class MainFrame extends JFrame implements ActionListener {
         saveAsTSLButton.setVerticalTextPosition(SwingConstants.BOTTOM);
         jToolBar1.add(saveAsTSLButton);
 
-        signTSLButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_sign.png")));
+        signTSLButton.setIcon(IconRegistry.getIcon("/icons/tsl_sign.png"));
         signTSLButton.setMnemonic(uiKeys.getString("MainFrame.menu.sign.mnemonic").charAt(0));
         signTSLButton.setText(uiKeys.getString("MainFrame.menu.sign")); // NOI18N
         signTSLButton.setEnabled(false);
@@ -274,7 +303,7 @@ public class MainFrame extends JFrame implements ActionListener {
         signTSLButton.setVerticalTextPosition(SwingConstants.BOTTOM);
         jToolBar1.add(signTSLButton);
 
-        showLogButton.setIcon(new ImageIcon(getClass().getResource("/icons/tsl_sign.png")));
+        showLogButton.setIcon(IconRegistry.getIcon("/icons/tsl_sign.png"));
         showLogButton.setMnemonic(uiKeys.getString("MainFrame.menu.log.mnemonic").charAt(0));
         showLogButton.setText(uiKeys.getString("MainFrame.menu.log")); // NOI18N
         showLogButton.setEnabled(false);
@@ -303,24 +332,42 @@ public class MainFrame extends JFrame implements ActionListener {
     private JTree tslTree;
     // End of variables declaration//GEN-END:variables
 
+    private void initWorkspaceComponents() {
+        documentSelector = new JComboBox();
+        documentSelector.setToolTipText(uiKeys.getString("MainFrame.workspace.tooltip"));
+        documentSelector.setEnabled(false);
+        documentSelector.setFocusable(false);
+        documentSelector.setPrototypeDisplayValue("XXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        documentSelector.setMaximumSize(documentSelector.getPreferredSize());
+        documentSelector.setName("mainFrame_documentSelector"); // NOI18N
+
+        closeTSLButton = new JButton();
+        closeTSLButton.setMnemonic(uiKeys.getString("MainFrame.menu.close.mnemonic").charAt(0));
+        closeTSLButton.setText(uiKeys.getString("MainFrame.menu.close")); // NOI18N
+        closeTSLButton.setEnabled(false);
+        closeTSLButton.setFocusable(false);
+        closeTSLButton.setName("mainFrame_closeButton"); // NOI18N
+
+        jToolBar1.addSeparator();
+        jToolBar1.add(documentSelector);
+        jToolBar1.add(closeTSLButton);
+    }
+
     /**
-     * Aligns the selection path of the tree to the matching associated <code>TreeNode</code> object found in the map of
-     * 'validation associations'.
+     * Aligns the selection path of the tree to the <code>TreeNode</code> that represents the given object; cf.
+     * <code>TSLTreeModel.resolveTreePath</code>.
      *
      * @param panelObject the reference object
      */
     public void alignTreeSelectionToValidationMessage(Object panelObject) {
         if (panelObject != null) {
-            Map<Object, TreeNode[]> validationAssociations = composer.getValidationAssociations();
-            if (validationAssociations != null) {
-                TreeNode[] treeNodes = validationAssociations.get(panelObject);
-                if (treeNodes != null) {
-                    TreePath path = new TreePath(treeNodes);
-                    tslTree.setSelectionPath(path);
-                    tslTree.scrollPathToVisible(path);
-                } else {
-                    LOG.warn("Unable to get associated Selection Path to object!");
-                }
+            TreeNode[] treeNodes = treeModel.resolveTreePath(panelObject);
+            if (treeNodes != null) {
+                TreePath path = new TreePath(treeNodes);
+                tslTree.setSelectionPath(path);
+                tslTree.scrollPathToVisible(path);
+            } else {
+                LOG.warn("Unable to get associated Selection Path to object!");
             }
         }
     }
@@ -333,15 +380,43 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     private void resetEnv() {
+        composer.setValidationLogger(null);
+        showActiveDocument();
+    }
+
+    /**
+     * Brings the frame in line with the list that is shown by the composer.
+     */
+    private void showActiveDocument() {
         tslInformationPage.reInit();
         String title = APP_TITLE;
         if (composer.getCurrentFile() != null) {
             title += "- " + composer.getCurrentFile().getAbsolutePath();
         }
         setTitle(title);
-        composer.setValidationLogger(null);
-        showLogButton.setEnabled(false);
-        updateLogDialog(new ArrayList<Message>());
+
+        ValidationLogger validationLogger = composer.getValidationLogger();
+        showLogButton.setEnabled(validationLogger != null);
+        if (validationLogger != null) {
+            updateLogDialog(validationLogger.getMessages());
+        } else {
+            updateLogDialog(new ArrayList<Message>());
+        }
+
+        boolean anyTSLExists = composer.doesAnyTSLExist();
+        saveTSLButton.setEnabled(anyTSLExists);
+        saveAsTSLButton.setEnabled(anyTSLExists);
+        signTSLButton.setEnabled(anyTSLExists);
+        closeTSLButton.setEnabled(anyTSLExists);
+
+        updatingDocumentSelector = true;
+        try {
+            documentSelector.setModel(new DefaultComboBoxModel(composer.getDocuments().toArray()));
+            documentSelector.setSelectedItem(composer.getActiveDocument());
+        } finally {
+            updatingDocumentSelector = false;
+        }
+        documentSelector.setEnabled(documentSelector.getItemCount() > 1);
     }
 
     /**
@@ -399,14 +474,29 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     private void newAction() {
-        boolean createNew = userMustConfirmLosingUnsavedWork(uiKeys.getString("MainFrame.newList.message"), uiKeys.getString("MainFrame.newList.title"));
-        if (createNew) {
-            LOG.info("Create new TSL");
-            composer.newTSL();
-            resetEnv();
-            saveTSLButton.setEnabled(true);
-            saveAsTSLButton.setEnabled(true);
-            signTSLButton.setEnabled(true);
+        LOG.info("Create new TSL");
+        tslTree.clearSelection(); // the edits on the node that is left get revalidated
+        composer.newTSL();
+        resetEnv();
+    }
+
+    private void switchAction() {
+        TSLDocument document = (TSLDocument) documentSelector.getSelectedItem();
+        if ((document != null) && (document != composer.getActiveDocument())) {
+            LOG.info("Switch to " + document);
+            tslTree.clearSelection();
+            composer.switchTo(document);
+            showActiveDocument();
+        }
+    }
+
+    private void closeAction() {
+        boolean close = userMustConfirmLosingUnsavedWork(uiKeys.getString("MainFrame.closeList.message"), uiKeys.getString("MainFrame.closeList.title"));
+        if (close) {
+            LOG.info("Close " + composer.getActiveDocument());
+            tslTree.clearSelection();
+            composer.closeActiveDocument();
+            showActiveDocument();
         }
     }
 
@@ -424,19 +514,27 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     private void openAction() {
-        boolean createNew = userMustConfirmLosingUnsavedWork(uiKeys.getString("MainFrame.openList.message"), uiKeys.getString("MainFrame.openList.title"));
-        if (!createNew) {
-            return;
-        }
         LOG.info("Trying to open a file ...");
         int returnValue = fileChooser.showOpenDialog(getRootPane());
         if (returnValue == JFileChooser.APPROVE_OPTION) {
             try {
-                composer.openFile(fileChooser.getSelectedFile());
+                TSLDocument openDocument = composer.findDocument(fileChooser.getSelectedFile());
+                if (openDocument != null) {
+                    // the list is already in the workspace; no need to read it again
+                    LOG.info("... already open!");
+                    tslTree.clearSelection();
+                    composer.switchTo(openDocument);
+                    showActiveDocument();
+                    return;
+                }
+                TSLComposer.LoadedList loadedList = loadInBackground(fileChooser.getSelectedFile());
+                if (loadedList == null) {
+                    LOG.info("... cancelled!");
+                    return;
+                }
+                tslTree.clearSelection();
+                composer.openFile(loadedList);
                 resetEnv();
-                saveTSLButton.setEnabled(true);
-                signTSLButton.setEnabled(true);
-                saveAsTSLButton.setEnabled(true);
                 LOG.info("... success!");
                 if (composer.isFileMigrated()) {
 
@@ -458,6 +556,67 @@ public class MainFrame extends JFrame implements ActionListener {
         }
     }
 
+    /**
+     * Reads a list in the background while a progress dialog is shown.
+     *
+     * @param file the file to read
+     * @return the list, or null if the user cancelled
+     * @throws OpenException if the list cannot be read
+     */
+    private TSLComposer.LoadedList loadInBackground(final File file) throws OpenException {
+        final ProgressDialog progressDialog = new ProgressDialog(this, uiKeys.getString("MainFrame.progress.openTitle"),
+              uiKeys.getString("MainFrame.progress.cancel"));
+        progressDialog.setStage(uiKeys.getString("MainFrame.progress.opening"));
+        final SwingWorker<TSLComposer.LoadedList, String> loader = new SwingWorker<TSLComposer.LoadedList, String>() {
+            @Override
+            protected TSLComposer.LoadedList doInBackground() throws Exception {
+                return composer.loadFile(file, new TSLComposer.LoadProgressListener() {
+                    @Override
+                    public void loaded(int providers, int services) {
+                        if (isCancelled()) {
+                            throw new CancellationException();
+                        }
+                        publish(MessageFormat.format(uiKeys.getString("MainFrame.progress.loaded"), providers, services));
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<String> stages) {
+                progressDialog.setStage(stages.get(stages.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+            }
+        };
+        progressDialog.addCancelListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                loader.cancel(true);
+            }
+        });
+
+        loader.execute();
+        progressDialog.setVisible(true);
+
+        if (loader.isCancelled()) {
+            return null;
+        }
+        try {
+            return loader.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof OpenException) {
+                throw (OpenException) ex.getCause();
+            }
+            throw new OpenException(String.valueOf(ex.getCause()), ex.getCause());
+        }
+    }
+
     private void saveAction() {
         LOG.info("Trying to save TSL ...");
         try {
@@ -503,29 +662,72 @@ public class MainFrame extends JFrame implements ActionListener {
         }
     }
 
+    /**
+     * Brings the log of the active list up to date after one of its objects was edited. Only the affected rules are
+     * executed, and none that contacts a server, so this is done right away, while no other edit can change the list.
+     *
+     * @param changed the edited object
+     */
+    private void revalidateEdited(Object changed) {
+        ValidationLogger logger = composer.revalidate(composer.createValidationParameters(), changed);
+        if (logger != null) {
+            updateLogDialog(logger.getMessages());
+        }
+    }
+
     private void signAction() {
         LOG.info("Sign TSL");
-        Document document = null;
+        final ProgressDialog progressDialog = new ProgressDialog(this, uiKeys.getString("MainFrame.validateSignWizard.title"),
+              uiKeys.getString("MainFrame.progress.cancel"));
+        final SignPreparation preparation = new SignPreparation(composer.createValidationParameters(), progressDialog);
+        progressDialog.addCancelListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                preparation.cancelRequested = true;
+                progressDialog.setCancelling(uiKeys.getString("MainFrame.progress.cancelling"));
+            }
+        });
+
+        // the modal dialog blocks any editing while the list is processed in the background; the list and the shared
+        // marshaller are in use until the background work has returned, so the dialog is only closed then, even when
+        // the user cancels
+        preparation.execute();
+        progressDialog.setVisible(true);
+
+        if (preparation.cancelRequested) {
+            LOG.info("Signing cancelled");
+            return;
+        }
         try {
-            document = composer.marshall();
-        } catch (Exception ex) {
-            String message = uiKeys.getString("MainFrame.marshalling.error") + ex.getMessage();
-            notifyUser(message, uiKeys.getString("MainFrame.marshalling.title"));
-            LOG.error(message, ex);
+            preparation.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException ex) {
+            String message = uiKeys.getString("MainFrame.sign.preparation.error") + ex.getCause().getMessage();
+            notifyUser(message, uiKeys.getString("MainFrame.validateSignWizard.title"));
+            LOG.error(message, ex.getCause());
+            return;
         }
 
-        ValidationLogger logger = composer.startValidation();
+        if (preparation.marshallingException != null) {
+            String message = uiKeys.getString("MainFrame.marshalling.error") + preparation.marshallingException.getMessage();
+            notifyUser(message, uiKeys.getString("MainFrame.marshalling.title"));
+            LOG.error(message, preparation.marshallingException);
+        }
 
-        updateLogDialog(logger.getMessages());
-        if (!logger.getValidationMessages().isEmpty()) {
+        ValidationLogger logger = preparation.logger;
+        composer.setValidationLogger(logger);
+        List<Message> messages = logger.getMessages();
+        updateLogDialog(messages);
+        if (!messages.isEmpty()) {
             showLogButton.setEnabled(true);
         } else {
             showLogButton.setEnabled(false);
         }
 
         // start wizard
-        SignatureManager manager = new SignatureManager(logger);
-        manager.initInMemoryDocument(document);
+        SignatureManager manager = preparation.manager;
 
         WizardDescriptor wizard = new WizardDescriptor(
               new WizardDescriptor.Panel[]{new SignatureWizardStep1(manager), new SignatureWizardStep2(manager), new SignatureWizardStep3(manager), new SignatureWizardStep4(manager)});
@@ -537,13 +739,73 @@ public class MainFrame extends JFrame implements ActionListener {
         wizardDialog.setVisible(true);
     }
 
+    /**
+     * Marshalls and validates the list and prepares the document to sign, in the background. The results are only taken
+     * over on the event dispatch thread, so that a cancelled run leaves no trace. A cancel request is checked between the
+     * steps; the step that is running is finished.
+     */
+    private class SignPreparation extends SwingWorker<Void, String> {
+        private final ValidationParameters vp;
+        private final ProgressDialog progressDialog;
+
+        private volatile boolean cancelRequested;
+        private Exception marshallingException;
+        private ValidationLogger logger;
+        private SignatureManager manager;
+
+        SignPreparation(ValidationParameters vp, ProgressDialog progressDialog) {
+            this.vp = vp;
+            this.progressDialog = progressDialog;
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            publish(uiKeys.getString("MainFrame.progress.marshalling"));
+            Document document = null;
+            try {
+                document = composer.marshall();
+            } catch (Exception ex) {
+                marshallingException = ex;
+            }
+            if (cancelRequested) {
+                return null;
+            }
+
+            publish(uiKeys.getString("MainFrame.progress.validating"));
+            ValidationLogger validationLogger = new Validation(vp, composer.getTsl()).validate();
+            if (cancelRequested) {
+                return null;
+            }
+
+            publish(uiKeys.getString("MainFrame.progress.preparing"));
+            SignatureManager signatureManager = new SignatureManager(validationLogger);
+            signatureManager.initInMemoryDocument(document);
+
+            logger = validationLogger;
+            manager = signatureManager;
+            return null;
+        }
+
+        @Override
+        protected void process(List<String> stages) {
+            if (!cancelRequested) {
+                progressDialog.setStage(stages.get(stages.size() - 1));
+            }
+        }
+
+        @Override
+        protected void done() {
+            progressDialog.dispose();
+        }
+    }
+
     private void showLogAction() {
         ValidationLogger validationLogger = composer.getValidationLogger();
         if (validationLogger != null) {
             if (logDialog == null) {
-                logDialog = new LogDialog(null, false, this, validationLogger.getValidationMessages());
+                logDialog = new LogDialog(null, false, this, validationLogger.getMessages());
             } else {
-                updateLogDialog(validationLogger.getValidationMessages());
+                updateLogDialog(validationLogger.getMessages());
             }
             logDialog.setVisible(true);
         }
@@ -567,6 +829,12 @@ public class MainFrame extends JFrame implements ActionListener {
             signAction();
         } else if (source == showLogButton) {
             showLogAction();
+        } else if (source == documentSelector) {
+            if (!updatingDocumentSelector) {
+                switchAction();
+            }
+        } else if (source == closeTSLButton) {
+            closeAction();
         } else {
             LOG.warn("Unhandled source: " + source + " (command=" + e.getActionCommand() + ")");
         }
@@ -22,6 +22,7 @@ package eu.europa.ec.markt.tlmanager.view.certificate;
 
 import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+import eu.europa.ec.markt.tlmanager.core.CertificateCache;
 import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityListType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityType;
 
@@ -61,7 +62,7 @@ public class CertificatePropertyModel {
 
 		try {
 
-			final CertificateToken certificate = DSSUtils.loadCertificate(certS.getX509Certificate());
+			final CertificateToken certificate = CertificateCache.getInstance().get(certS.getX509Certificate());
 			subjectName  = certificate.getSubjectX500Principal().getName();
 			snS = new DigitalIdentityType();
 			snS.setX509SubjectName(subjectName);
@@ -22,8 +22,9 @@ package eu.europa.ec.markt.tlmanager.view.certificate;
 
 import java.util.Arrays;
 
-import eu.europa.ec.markt.dss.DSSUtils;
 import eu.europa.ec.markt.dss.validation102853.CertificateToken;
+import eu.europa.ec.markt.tlmanager.core.CertificateCache;
+import eu.europa.ec.markt.tlmanager.core.CertificateStore;
 import eu.europa.ec.markt.tsl.jaxb.tsl.AnyType;
 import eu.europa.ec.markt.tsl.jaxb.tsl.DigitalIdentityType;
 
@@ -64,7 +65,7 @@ public class DigitalIdentityModel {
 
 	public CertificateToken getCertificate() {
 		if (digitalIdentity.getX509Certificate() != null) {
-			return DSSUtils.loadCertificate(digitalIdentity.getX509Certificate());
+			return CertificateCache.getInstance().get(digitalIdentity.getX509Certificate());
 		} else {
 			return null;
 		}
@@ -76,7 +77,7 @@ public class DigitalIdentityModel {
 		digitalIdentity.setOther(null);
 
 		if (certificate != null) {
-			digitalIdentity.setX509Certificate(certificate.getEncoded());
+			digitalIdentity.setX509Certificate(CertificateStore.getInstance().intern(certificate.getEncoded()));
 		} else {
 			digitalIdentity.setX509Certificate(null);
 		}
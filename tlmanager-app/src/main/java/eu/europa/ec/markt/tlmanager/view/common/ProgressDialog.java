@@ -0,0 +1,114 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.view.common;
+
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.WindowConstants;
+
+/**
+ * A modal dialog that shows the current stage of a long running task and lets the user cancel it.
+ * 
+ *
+ *
+ */
+
+public class ProgressDialog extends JDialog {
+
+    private final JLabel stageLabel = new JLabel(" ");
+    private final JButton cancelButton;
+
+    /**
+     * Instantiates a new progress dialog.
+     * 
+     * @param owner the owner
+     * @param title the title
+     * @param cancelText the text of the cancel button
+     */
+    public ProgressDialog(Frame owner, String title, String cancelText) {
+        super(owner, title, true);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        setResizable(false);
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        cancelButton = new JButton(cancelText);
+
+        JPanel content = new JPanel(new BorderLayout(0, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        content.add(stageLabel, BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel();
+        buttons.add(cancelButton);
+        content.add(buttons, BorderLayout.SOUTH);
+        setContentPane(content);
+
+        // closing the window is the same as pressing cancel
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelButton.doClick();
+            }
+        });
+
+        setSize(360, 140);
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Adds a listener that is notified when the user cancels the task.
+     * 
+     * @param listener the listener
+     */
+    public void addCancelListener(ActionListener listener) {
+        cancelButton.addActionListener(listener);
+    }
+
+    /**
+     * Shows that the task is being cancelled. The dialog stays open until the task has really stopped; the cancel
+     * button is disabled meanwhile. Must be called on the event dispatch thread.
+     * 
+     * @param stage a short description of the cancellation
+     */
+    public void setCancelling(String stage) {
+        cancelButton.setEnabled(false);
+        stageLabel.setText(stage);
+    }
+
+    /**
+     * Shows the current stage of the task. Must be called on the event dispatch thread.
+     * 
+     * @param stage a short description of the stage
+     */
+    public void setStage(String stage) {
+        stageLabel.setText(stage);
+    }
+}
@@ -20,6 +20,8 @@
  */
 package eu.europa.ec.markt.tlmanager.view.pages;
 
+import java.awt.Component;
+
 import javax.swing.*;
 
 import eu.europa.ec.markt.dss.common.TooltipHelper;
@@ -93,6 +95,18 @@ public class ServiceCurrentStatusInformationPage extends TreeDataPublisher {
         setMandatoryLabel(currentStatusStartingDateLabel);
     }
 
+    /**
+     * {@inheritDoc}<br>
+     * The tree node caches its label, which is the service name; it is reset before the tree is told that the node changed.
+     */
+    @Override
+    public void handleLabelStateFor(Component component, boolean empty) {
+        if (component == serviceName && dataNode != null) {
+            dataNode.resetLabel();
+        }
+        super.handleLabelStateFor(component, empty);
+    }
+
     /**
      * This method is called from within the constructor to initialize the form. WARNING: Do NOT modify this code. The
      * content of this method is always regenerated by the Form Editor.
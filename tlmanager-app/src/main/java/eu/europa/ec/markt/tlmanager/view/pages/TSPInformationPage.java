@@ -20,6 +20,8 @@
  */
 package eu.europa.ec.markt.tlmanager.view.pages;
 
+import java.awt.Component;
+
 import javax.swing.*;
 
 import eu.europa.ec.markt.tlmanager.core.Configuration;
@@ -78,6 +80,18 @@ public class TSPInformationPage extends TreeDataPublisher {
         setMandatoryLabel(informationURILabel);
     }
 
+    /**
+     * {@inheritDoc}<br>
+     * The tree node caches its label, which is the TSP name; it is reset before the tree is told that the node changed.
+     */
+    @Override
+    public void handleLabelStateFor(Component component, boolean empty) {
+        if (component == tspName && dataNode != null) {
+            dataNode.resetLabel();
+        }
+        super.handleLabelStateFor(component, empty);
+    }
+
     /**
      * This method is called from within the constructor to initialize the form. WARNING: Do NOT modify this code. The
      * content of this method is always regenerated by the Form Editor.
@@ -72,6 +72,7 @@ public abstract class TreeDataPublisher extends JPanel implements MandatoryLabel
 	private List<JLabel> mandatoryLabels;
 	protected JTree tree;
 	protected TSLDataNode dataNode;
+	private boolean updatingView;
 
 	/**
 	 * The default constructor for TreeDataPublisher.
@@ -98,6 +99,20 @@ public abstract class TreeDataPublisher extends JPanel implements MandatoryLabel
 	 */
 	public abstract void updateViewFromData(TSLDataNode data);
 
+	/**
+	 * Shows the provided data. The changes of the components while they are filled are not taken as edits of the data.
+	 *
+	 * @param data data to show
+	 */
+	public void showData(TSLDataNode data) {
+		updatingView = true;
+		try {
+			updateViewFromData(data);
+		} finally {
+			updatingView = false;
+		}
+	}
+
 	/**
 	 * Called by constructor and helps to ensure that all instances have set a name.
 	 */
@@ -253,6 +268,9 @@ public abstract class TreeDataPublisher extends JPanel implements MandatoryLabel
 		// Note: if there has something changed in a component, it may be interesting for the tree too
 		// e.g. if the pointer-schemeTerritory selection was changed, that shall be reflected directly
 		TSLTreeModel model = (TSLTreeModel) tree.getModel();
+		if (!updatingView && (dataNode != null)) {
+			model.markEdited(dataNode.getUserObject());
+		}
 		model.fireNodeChanged(tree.getSelectionPath());
 	}
 
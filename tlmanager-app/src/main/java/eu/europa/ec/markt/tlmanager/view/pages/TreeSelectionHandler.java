@@ -74,7 +74,7 @@ public class TreeSelectionHandler implements TreeSelectionListener {
             if (selectedObj instanceof TSLDataNode) {
                 TSLDataNode tslDataNode = (TSLDataNode) selectedObj;
                 tdp = findMatching(tslDataNode.getAssociatedDataPublisherName());
-                tdp.updateViewFromData(tslDataNode);
+                tdp.showData(tslDataNode);
                 targetPane.setViewportView(tdp);
             } else {
                 LOG.warn("No associated TreeDataPublisher found for {}", selectedObj);
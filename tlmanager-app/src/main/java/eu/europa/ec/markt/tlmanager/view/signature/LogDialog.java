@@ -22,21 +22,29 @@ package eu.europa.ec.markt.tlmanager.view.signature;
 
 import eu.europa.ec.markt.tlmanager.core.Configuration;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.LEVEL;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.Message;
 import eu.europa.ec.markt.tlmanager.util.Util;
 import eu.europa.ec.markt.tlmanager.view.MainFrame;
 
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.List;
 import java.util.ResourceBundle;
 
-import javax.swing.DefaultListModel;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
 import javax.swing.ListSelectionModel;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
 /**
- * A dialog for holding validation logs.
+ * A dialog for holding validation logs. The messages can be filtered by level and by rule; the list is backed directly by
+ * the messages and renders only the visible ones, so it opens quickly for any number of messages.
  * 
  *
  *
@@ -47,7 +55,7 @@ public class LogDialog extends JDialog {
             Configuration.getInstance().getLocale());
 
     private MainFrame mainFrame;
-    private DefaultListModel validationItemModel;
+    private MessageListModel validationItemModel;
     private MessageLabelRenderer itemLabelRenderer;
     private boolean isRefreshing = false;
 
@@ -60,11 +68,12 @@ public class LogDialog extends JDialog {
     public LogDialog(java.awt.Frame parent, boolean modal) {
         super(parent, modal);
         setTitle(uiKeys.getString("LogDialog.title"));
-        validationItemModel = new DefaultListModel();
+        validationItemModel = new MessageListModel();
         itemLabelRenderer = new MessageLabelRenderer();
 
         initComponents();
         logTitle.setTitle(uiKeys.getString("LogDialog.title"));
+        initFilters();
 
         validationLog.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         validationLog.setCellRenderer(itemLabelRenderer);
@@ -73,7 +82,9 @@ public class LogDialog extends JDialog {
             public void valueChanged(ListSelectionEvent e) {
                 if (!e.getValueIsAdjusting() && !isRefreshing) {
                     Message selectedMessage = (Message) validationLog.getSelectedValue();
-                    mainFrame.alignTreeSelectionToValidationMessage(selectedMessage.getParentPanelObject());
+                    if (selectedMessage != null && mainFrame != null) {
+                        mainFrame.alignTreeSelectionToValidationMessage(selectedMessage.getParentPanelObject());
+                    }
                 }
             }
         });
@@ -96,19 +107,63 @@ public class LogDialog extends JDialog {
     }
 
     /**
-     * Clears the validationItemModel and adds all available validation items.
+     * Replaces the messages of the validationItemModel. The current filters are kept, as long as the filtered rule still
+     * reported messages.
      * 
-     * @param messages the available messages
+     * @param messages the available messages; the list must not change afterwards
      */
     public void setValidationMessages(List<ValidationLogger.Message> messages) {
         isRefreshing = true;
-        validationItemModel.clear();
-        for (Message msg : messages) {
-            validationItemModel.addElement(msg);
-        }
+        validationItemModel.setMessages(messages);
+        updateRuleFilter();
+        applyFilter();
         isRefreshing = false;
     }
 
+    private void initFilters() {
+        DefaultComboBoxModel levels = new DefaultComboBoxModel();
+        levels.addElement(uiKeys.getString("LogDialog.filter.all"));
+        for (LEVEL level : LEVEL.values()) {
+            levels.addElement(level);
+        }
+        levelFilter.setModel(levels);
+        ruleFilter.setModel(new DefaultComboBoxModel(new Object[] { uiKeys.getString("LogDialog.filter.all") }));
+
+        ActionListener filterListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!isRefreshing) {
+                    isRefreshing = true;
+                    applyFilter();
+                    isRefreshing = false;
+                }
+            }
+        };
+        levelFilter.addActionListener(filterListener);
+        ruleFilter.addActionListener(filterListener);
+    }
+
+    private void applyFilter() {
+        Object level = levelFilter.getSelectedItem();
+        Object ruleId = ruleFilter.getSelectedIndex() > 0 ? ruleFilter.getSelectedItem() : null;
+        validationItemModel.setFilter(level instanceof LEVEL ? (LEVEL) level : null, (String) ruleId);
+        itemLabelRenderer.fitCells(validationLog);
+    }
+
+    private void updateRuleFilter() {
+        Object selected = ruleFilter.getSelectedIndex() > 0 ? ruleFilter.getSelectedItem() : null;
+
+        DefaultComboBoxModel rules = new DefaultComboBoxModel();
+        rules.addElement(uiKeys.getString("LogDialog.filter.all"));
+        for (String ruleId : validationItemModel.getRuleIds()) {
+            rules.addElement(ruleId);
+        }
+        if (selected != null && rules.getIndexOf(selected) > 0) {
+            rules.setSelectedItem(selected);
+        }
+        ruleFilter.setModel(rules);
+    }
+
     /**
      * This method is called from within the constructor to initialize the form. WARNING: Do NOT modify this code. The
      * content of this method is always regenerated by the Form Editor.
@@ -120,6 +175,11 @@ public class LogDialog extends JDialog {
         logTitle = new eu.europa.ec.markt.tlmanager.view.common.TitledPanel();
         validationLogScrollPane = new javax.swing.JScrollPane();
         validationLog = new javax.swing.JList();
+        filterPanel = new JPanel(new FlowLayout(FlowLayout.LEADING, 5, 0));
+        levelFilterLabel = new JLabel(uiKeys.getString("LogDialog.filter.level")); // NOI18N
+        levelFilter = new JComboBox();
+        ruleFilterLabel = new JLabel(uiKeys.getString("LogDialog.filter.rule")); // NOI18N
+        ruleFilter = new JComboBox();
         closeButton = new javax.swing.JButton();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
@@ -127,6 +187,13 @@ public class LogDialog extends JDialog {
         validationLog.setModel(validationItemModel);
         validationLogScrollPane.setViewportView(validationLog);
 
+        levelFilterLabel.setLabelFor(levelFilter);
+        ruleFilterLabel.setLabelFor(ruleFilter);
+        filterPanel.add(levelFilterLabel);
+        filterPanel.add(levelFilter);
+        filterPanel.add(ruleFilterLabel);
+        filterPanel.add(ruleFilter);
+
         javax.swing.GroupLayout logTitleLayout = new javax.swing.GroupLayout(logTitle);
         logTitle.setLayout(logTitleLayout);
         logTitleLayout.setHorizontalGroup(logTitleLayout.createParallelGroup(
@@ -134,12 +201,20 @@ public class LogDialog extends JDialog {
                 logTitleLayout
                         .createSequentialGroup()
                         .addContainerGap()
-                        .addComponent(validationLogScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 572,
-                                Short.MAX_VALUE).addContainerGap()));
+                        .addGroup(
+                                logTitleLayout
+                                        .createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                                        .addComponent(filterPanel, javax.swing.GroupLayout.DEFAULT_SIZE,
+                                                javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                                        .addComponent(validationLogScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE,
+                                                572, Short.MAX_VALUE)).addContainerGap()));
         logTitleLayout.setVerticalGroup(logTitleLayout
                 .createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING).addGroup(
                         logTitleLayout
                                 .createSequentialGroup()
+                                .addComponent(filterPanel, javax.swing.GroupLayout.PREFERRED_SIZE,
+                                        javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                                 .addComponent(validationLogScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 176,
                                         Short.MAX_VALUE).addContainerGap()));
 
@@ -200,7 +275,12 @@ public class LogDialog extends JDialog {
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JButton closeButton;
+    private JPanel filterPanel;
+    private JComboBox levelFilter;
+    private JLabel levelFilterLabel;
     private eu.europa.ec.markt.tlmanager.view.common.TitledPanel logTitle;
+    private JComboBox ruleFilter;
+    private JLabel ruleFilterLabel;
     private javax.swing.JList validationLog;
     private javax.swing.JScrollPane validationLogScrollPane;
     // End of variables declaration//GEN-END:variables
@@ -20,18 +20,19 @@
  */
 package eu.europa.ec.markt.tlmanager.view.signature;
 
-import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.Message;
 
 import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
 
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.JLabel;
 import javax.swing.JList;
-import javax.swing.ListCellRenderer;
+import javax.swing.ListModel;
 
 /**
- * A renderer for <code>JLabel</code>'s in a list.
+ * A renderer for validation messages in a list. The icon and the text are taken from the message itself, so that no
+ * component is created per message.
  * 
  *
  *
@@ -44,13 +45,45 @@ public class MessageLabelRenderer extends DefaultListCellRenderer {
             boolean cellHasFocus) {
         super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
 
-        ValidationLogger.Message msg = (Message) value;
-        JLabel label = msg.getLabel();
-        if (label != null) {
-            setIcon(label.getIcon());
-            setText(label.getText());
+        if (value instanceof Message) {
+            Message msg = (Message) value;
+            setIcon(msg.getIcon());
+            setText(msg.getMessage());
+            setToolTipText(msg.getRuleId());
         }
 
         return this;
     }
+
+    /**
+     * Gives all cells of the list the size of the cell with the longest message. Otherwise the list renders every
+     * message to lay itself out, which takes long for thousands of messages. Has to be called whenever the content of the
+     * list has changed.
+     * 
+     * @param list the list that uses this renderer
+     */
+    public void fitCells(JList list) {
+        ListModel model = list.getModel();
+        FontMetrics metrics = list.getFontMetrics(list.getFont());
+        Object longest = null;
+        int longestWidth = -1;
+        for (int i = 0; i < model.getSize(); i++) {
+            Object value = model.getElementAt(i);
+            String text = value instanceof Message ? ((Message) value).getMessage() : String.valueOf(value);
+            int width = text != null ? metrics.stringWidth(text) : 0;
+            if (width > longestWidth) {
+                longest = value;
+                longestWidth = width;
+            }
+        }
+
+        if (longest == null) {
+            list.setFixedCellWidth(-1);
+            list.setFixedCellHeight(-1);
+        } else {
+            Dimension size = getListCellRendererComponent(list, longest, 0, false, false).getPreferredSize();
+            list.setFixedCellWidth(size.width);
+            list.setFixedCellHeight(size.height);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.view.signature;
+
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.LEVEL;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.Message;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A list model that is backed directly by the validation messages and shows those that pass a level and a rule filter.
+ * Nothing is created per message, so the model can hold any number of messages; the list renders the visible ones only.
+ * 
+ *
+ *
+ */
+
+public class MessageListModel extends AbstractListModel {
+
+    private List<Message> messages = Collections.emptyList();
+    private List<Message> filtered = messages;
+    private LEVEL level;
+    private String ruleId;
+
+    /**
+     * Replaces the messages of the model. The filters are kept.
+     * 
+     * @param messages the messages; the list is used as it is and must not change afterwards
+     */
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+        refilter();
+    }
+
+    /**
+     * Shows only the messages that match the given level and rule.
+     * 
+     * @param level the level, or null to show all levels
+     * @param ruleId the id of the rule that reported the messages, or null to show the messages of all rules
+     */
+    public void setFilter(LEVEL level, String ruleId) {
+        this.level = level;
+        this.ruleId = ruleId;
+        refilter();
+    }
+
+    /**
+     * @return the sorted ids of the rules that reported at least one of the messages, regardless of the filters
+     */
+    public List<String> getRuleIds() {
+        SortedSet<String> ruleIds = new TreeSet<String>();
+        for (Message msg : messages) {
+            if (msg.getRuleId() != null) {
+                ruleIds.add(msg.getRuleId());
+            }
+        }
+        return new ArrayList<String>(ruleIds);
+    }
+
+    /**
+     * @return the number of messages, regardless of the filters
+     */
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getSize() {
+        return filtered.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getElementAt(int index) {
+        return filtered.get(index);
+    }
+
+    private void refilter() {
+        int oldSize = filtered.size();
+        if (level == null && ruleId == null) {
+            filtered = messages;
+        } else {
+            filtered = new ArrayList<Message>();
+            for (Message msg : messages) {
+                if ((level == null || level == msg.getLevel()) && (ruleId == null || ruleId.equals(msg.getRuleId()))) {
+                    filtered.add(msg);
+                }
+            }
+        }
+
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (!filtered.isEmpty()) {
+            fireIntervalAdded(this, 0, filtered.size() - 1);
+        }
+    }
+}
@@ -30,7 +30,6 @@ import javax.swing.*;
 
 import eu.europa.ec.markt.tlmanager.core.Configuration;
 import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
-import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger.Message;
 
 /**
  * Panel that wraps the controls for the first signature step.
@@ -44,14 +43,14 @@ public class SignatureStep1 extends javax.swing.JPanel implements AWTEventListen
             Configuration.getInstance().getLocale());
 
     private SignatureWizardStep1 wizard;
-    private DefaultListModel validationItemModel;
+    private MessageListModel validationItemModel;
     private MessageLabelRenderer itemLabelRenderer;
 
     /**
      * Instantiates a new signature step1.
      */
     public SignatureStep1() {
-        validationItemModel = new DefaultListModel();
+        validationItemModel = new MessageListModel();
         itemLabelRenderer = new MessageLabelRenderer();
 
         initComponents();
@@ -73,15 +72,13 @@ public class SignatureStep1 extends javax.swing.JPanel implements AWTEventListen
     }
 
     /**
-     * Clears the validationItemModel and adds all available validation items.
+     * Replaces the messages of the validationItemModel.
      * 
-     * @param validationMessages the available validationMessages
+     * @param validationMessages the available validationMessages; the list must not change afterwards
      */
     public void setValidationMessages(List<ValidationLogger.Message> validationMessages) {
-        validationItemModel.clear();
-        for (Message message : validationMessages) {
-            validationItemModel.addElement(message);
-        }
+        validationItemModel.setMessages(validationMessages);
+        itemLabelRenderer.fitCells(validationLog);
     }
 
     /**
@@ -0,0 +1,104 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.core.validation.RuleStatistics;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationParameters;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationRule;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Generates a small list, saves it, opens it again and validates it.
+ *
+ *
+ */
+
+public class TrustedListGeneratorTest {
+
+	private File file;
+
+	@Before
+	public void createFile() throws Exception {
+		file = File.createTempFile("generated", ".xml");
+	}
+
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+
+	@Test
+	public void generatedListCanBeSavedOpenedAndValidated() throws Exception {
+		TrustStatusListType tsl = new TrustedListGenerator(3, 2, 1, 1, 2).generate();
+
+		TSLComposer composer = new TSLComposer(null);
+		composer.openTSL(tsl);
+		composer.saveToFile(file);
+		Assert.assertTrue(file.length() > 0);
+
+		TSLComposer reopened = new TSLComposer(null);
+		reopened.openFile(file);
+		Assert.assertFalse(reopened.isFileMigrated());
+		List<TSPType> providers = reopened.getTSPList();
+		Assert.assertEquals(3, providers.size());
+		for (TSPType provider : providers) {
+			Assert.assertEquals(2, reopened.getServices(provider).size());
+		}
+
+		ValidationLogger sequential = reopened.startValidation(parameters(false));
+		ValidationLogger parallel = reopened.startValidation(parameters(true));
+
+		// all mandatory fields are set, so the business rules are checked, too
+		boolean rulesChecked = false;
+		for (RuleStatistics statistics : sequential.getStatistics()) {
+			rulesChecked |= statistics.getPhase() == ValidationRule.Phase.RULE;
+			Assert.assertEquals(statistics.getRuleId(), 1, statistics.getExecutions());
+		}
+		Assert.assertTrue(rulesChecked);
+		Assert.assertEquals(describe(sequential), describe(parallel));
+	}
+
+	private static ValidationParameters parameters(boolean parallel) {
+		ValidationParameters vp = new ValidationParameters();
+		vp.setParallel(parallel);
+		return vp;
+	}
+
+	private static List<String> describe(ValidationLogger logger) {
+		List<String> messages = new ArrayList<String>();
+		for (ValidationLogger.Message message : logger.getMessages()) {
+			messages.add(message.getRuleId() + " " + message);
+		}
+		return messages;
+	}
+}
@@ -0,0 +1,234 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for {@link URLReachabilityChecker}, against a local server.
+ *
+ *
+ */
+
+public class URLReachabilityCheckerTest {
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private String base;
+
+	// requests as "METHOD host path", in the order they were received
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@Before
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		serverThreads = Executors.newCachedThreadPool();
+		server.setExecutor(serverThreads);
+		server.createContext("/ok", new Handler() {
+			@Override
+			int respond(HttpExchange exchange) {
+				return HttpURLConnection.HTTP_OK;
+			}
+		});
+		server.createContext("/missing", new Handler() {
+			@Override
+			int respond(HttpExchange exchange) {
+				return HttpURLConnection.HTTP_NOT_FOUND;
+			}
+		});
+		server.createContext("/nohead", new Handler() {
+			@Override
+			int respond(HttpExchange exchange) {
+				return "HEAD".equals(exchange.getRequestMethod()) ? HttpURLConnection.HTTP_BAD_METHOD : HttpURLConnection.HTTP_OK;
+			}
+		});
+		server.createContext("/slow", new Handler() {
+			@Override
+			int respond(HttpExchange exchange) throws InterruptedException {
+				Thread.sleep(200);
+				return HttpURLConnection.HTTP_OK;
+			}
+		});
+		server.createContext("/hanging", new Handler() {
+			@Override
+			int respond(HttpExchange exchange) throws InterruptedException {
+				release.await(10, TimeUnit.SECONDS);
+				return HttpURLConnection.HTTP_OK;
+			}
+		});
+		server.start();
+		base = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@After
+	public void stopServer() {
+		release.countDown();
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	public void reachableAndUnreachableURLs() {
+		URLReachabilityChecker checker = new URLReachabilityChecker(4, 2, 2000, 60000);
+
+		Map<String, URLReachabilityChecker.Result> results = checker.check(Arrays.asList(base + "/ok", base + "/missing",
+				"ftp://127.0.0.1/ok"));
+
+		Assert.assertEquals(2, results.size());
+		Assert.assertTrue(results.get(base + "/ok").isReachable());
+		Assert.assertFalse(results.get(base + "/missing").isReachable());
+		Assert.assertEquals(HttpURLConnection.HTTP_NOT_FOUND, results.get(base + "/missing").getResponseCode());
+		Assert.assertEquals(Arrays.asList("HEAD /missing", "HEAD /ok"), sortedRequests());
+	}
+
+	@Test
+	public void getIsUsedIfHeadIsNotAllowed() {
+		URLReachabilityChecker checker = new URLReachabilityChecker(4, 2, 2000, 60000);
+
+		URLReachabilityChecker.Result result = checker.check(base + "/nohead");
+
+		Assert.assertTrue(result.isReachable());
+		Assert.assertEquals(Arrays.asList("HEAD /nohead", "GET /nohead"), paths());
+	}
+
+	@Test
+	public void checksTimeOut() {
+		URLReachabilityChecker checker = new URLReachabilityChecker(4, 2, 300, 60000);
+
+		long start = System.currentTimeMillis();
+		URLReachabilityChecker.Result result = checker.check(base + "/hanging");
+
+		Assert.assertFalse(result.isReachable());
+		Assert.assertEquals(-1, result.getResponseCode());
+		Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+
+	@Test
+	public void checksOfAHostAreLimited() {
+		URLReachabilityChecker checker = new URLReachabilityChecker(8, 2, 2000, 60000);
+		List<String> urls = new ArrayList<String>();
+		for (int i = 0; i < 6; i++) {
+			urls.add(base + "/slow/" + i);
+		}
+
+		Map<String, URLReachabilityChecker.Result> results = checker.check(urls);
+
+		Assert.assertEquals(6, results.size());
+		Assert.assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	public void aBusyHostDoesNotDelayOtherHosts() {
+		// two workers, one check per host: the second worker must not wait for the first host
+		URLReachabilityChecker checker = new URLReachabilityChecker(2, 1, 2000, 60000);
+		String otherHost = "http://localhost:" + server.getAddress().getPort();
+
+		checker.check(Arrays.asList(base + "/slow/1", base + "/slow/2", base + "/slow/3", otherHost + "/slow/4"));
+
+		Assert.assertEquals(4, requests.size());
+		Assert.assertTrue(requests.toString(), requests.indexOf("HEAD localhost /slow/4") < 2);
+	}
+
+	@Test
+	public void resultsAreCachedForAWhile() throws InterruptedException {
+		URLReachabilityChecker checker = new URLReachabilityChecker(4, 2, 2000, 300);
+
+		checker.check(base + "/ok");
+		checker.check(base + "/ok");
+		Assert.assertEquals(1, requests.size());
+		Assert.assertEquals(1, checker.getCachedCount());
+
+		Thread.sleep(400);
+		checker.check(base + "/missing");
+		Assert.assertEquals(1, checker.getCachedCount()); // the expired result was evicted
+
+		checker.check(base + "/ok");
+		Assert.assertEquals(Arrays.asList("HEAD /ok", "HEAD /missing", "HEAD /ok"), paths());
+	}
+
+	private List<String> paths() {
+		List<String> paths = new ArrayList<String>();
+		synchronized (requests) {
+			for (String request : requests) {
+				String[] parts = request.split(" ");
+				paths.add(parts[0] + " " + parts[2]);
+			}
+		}
+		return paths;
+	}
+
+	private List<String> sortedRequests() {
+		List<String> paths = paths();
+		Collections.sort(paths);
+		return paths;
+	}
+
+	/**
+	 * Records every request and answers without a body.
+	 */
+	private abstract class Handler implements HttpHandler {
+
+		abstract int respond(HttpExchange exchange) throws InterruptedException;
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			String host = exchange.getRequestHeaders().getFirst("Host").split(":")[0];
+			requests.add(exchange.getRequestMethod() + " " + host + " " + exchange.getRequestURI().getPath());
+			int now = running.incrementAndGet();
+			synchronized (maxRunning) {
+				maxRunning.set(Math.max(maxRunning.get(), now));
+			}
+			try {
+				exchange.sendResponseHeaders(respond(exchange), -1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+				exchange.close();
+			}
+		}
+	}
+}
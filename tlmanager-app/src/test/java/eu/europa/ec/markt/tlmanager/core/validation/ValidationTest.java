@@ -0,0 +1,114 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.core.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.ec.markt.tlmanager.core.generator.TrustedListGenerator;
+import eu.europa.ec.markt.tsl.jaxb.tsl.ServiceHistoryInstanceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TSPServiceType;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Checks that revalidating a list after an edit gives the same result as validating it again.
+ *
+ *
+ */
+
+public class ValidationTest {
+
+	private static final String RULE = "Rule.ServiceTypeIdentifier";
+	private static final String OTHER_TYPE = "http://uri.etsi.org/TrstSvc/Svctype/unknown";
+
+	private TrustStatusListType tsl;
+	private ValidationParameters vp;
+
+	@Before
+	public void generateList() throws Exception {
+		tsl = new TrustedListGenerator(3, 2, 1, 1, 2).generate();
+		vp = new ValidationParameters();
+	}
+
+	@Test
+	public void editingOneServiceKeepsTheMessagesOfTheOthers() {
+		ServiceHistoryInstanceType first = firstHistory(0);
+		ServiceHistoryInstanceType second = firstHistory(1);
+		String type = first.getServiceTypeIdentifier();
+		// the history of both services no longer refers to the type of the service
+		first.setServiceTypeIdentifier(OTHER_TYPE);
+		second.setServiceTypeIdentifier(OTHER_TYPE);
+
+		Validation validation = new Validation(vp, tsl);
+		ValidationLogger logger = validation.validate();
+		Assert.assertEquals(2, count(logger, RULE));
+
+		first.setServiceTypeIdentifier(type);
+		validation.revalidate(logger, first);
+		Assert.assertEquals(1, count(logger, RULE));
+		Assert.assertEquals(describe(new Validation(vp, tsl).validate()), describe(logger));
+
+		// the validation is kept for the next edit
+		second.setServiceTypeIdentifier(type);
+		validation.revalidate(logger, second);
+		Assert.assertEquals(0, count(logger, RULE));
+		Assert.assertEquals(describe(new Validation(vp, tsl).validate()), describe(logger));
+	}
+
+	@Test
+	public void editingAnUnknownObjectValidatesAgain() {
+		Validation validation = new Validation(vp, tsl);
+		ValidationLogger logger = validation.validate();
+		Assert.assertEquals(0, count(logger, RULE));
+
+		firstHistory(0).setServiceTypeIdentifier(OTHER_TYPE);
+		validation.revalidate(logger, new Object());
+		Assert.assertEquals(1, count(logger, RULE));
+		Assert.assertEquals(describe(new Validation(vp, tsl).validate()), describe(logger));
+	}
+
+	private ServiceHistoryInstanceType firstHistory(int provider) {
+		TSPServiceType service = tsl.getTrustServiceProviderList().getTrustServiceProvider().get(provider).getTSPServices().getTSPService().get(0);
+		return service.getServiceHistory().getServiceHistoryInstance().get(0);
+	}
+
+	private static int count(ValidationLogger logger, String ruleId) {
+		int count = 0;
+		for (ValidationLogger.Message message : logger.getMessages()) {
+			if (ruleId.equals(message.getRuleId())) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static List<String> describe(ValidationLogger logger) {
+		List<String> messages = new ArrayList<String>();
+		for (ValidationLogger.Message message : logger.getMessages()) {
+			messages.add(message.getRuleId() + " " + message);
+		}
+		return messages;
+	}
+}
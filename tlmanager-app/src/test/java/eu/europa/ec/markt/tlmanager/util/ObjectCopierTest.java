@@ -0,0 +1,167 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ObjectCopier}.
+ *
+ *
+ */
+
+public class ObjectCopierTest {
+
+    private static final QName NAME = new QName("http://uri.etsi.org/02231/v2#", "Item");
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    @XmlType(name = "ItemType")
+    static class Item {
+        private String name;
+        private byte[] certificate;
+        private XMLGregorianCalendar issued;
+        private boolean critical;
+        private Item first;
+        private Item second;
+        private Item parent;
+        private List<Object> content = new ArrayList<Object>();
+
+        Item() {
+        }
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void nullIsCopiedToNull() throws Exception {
+        Assert.assertNull(ObjectCopier.copy(null));
+    }
+
+    @Test
+    public void fieldsAreCopiedDeeply() throws Exception {
+        Item item = new Item("root");
+        item.critical = true;
+        item.first = new Item("child");
+
+        Item copy = ObjectCopier.copy(item);
+
+        Assert.assertNotSame(item, copy);
+        Assert.assertEquals("root", copy.name);
+        Assert.assertTrue(copy.critical);
+        Assert.assertNotSame(item.first, copy.first);
+        Assert.assertEquals("child", copy.first.name);
+        Assert.assertNotSame(item.content, copy.content);
+    }
+
+    @Test
+    public void byteArraysAreCopied() throws Exception {
+        Item item = new Item("root");
+        item.certificate = new byte[]{1, 2, 3};
+
+        Item copy = ObjectCopier.copy(item);
+
+        Assert.assertNotSame(item.certificate, copy.certificate);
+        Assert.assertArrayEquals(item.certificate, copy.certificate);
+        item.certificate[0] = 9;
+        Assert.assertEquals(1, copy.certificate[0]);
+    }
+
+    @Test
+    public void calendarsAreCopied() throws Exception {
+        Item item = new Item("root");
+        item.issued = XmlFactories.getDatatypeFactory().newXMLGregorianCalendar("2015-03-01T12:00:00Z");
+
+        Item copy = ObjectCopier.copy(item);
+
+        Assert.assertNotSame(item.issued, copy.issued);
+        Assert.assertEquals(item.issued, copy.issued);
+        item.issued.setYear(2016);
+        Assert.assertEquals(2015, copy.issued.getYear());
+    }
+
+    @Test
+    public void elementsAreCopied() throws Exception {
+        Item item = new Item("root");
+        JAXBElement<Item> element = new JAXBElement<Item>(NAME, Item.class, new Item("value"));
+        element.setNil(true);
+        item.content.add(element);
+        item.content.add("text");
+
+        Item copy = ObjectCopier.copy(item);
+
+        Assert.assertEquals(2, copy.content.size());
+        JAXBElement<?> copiedElement = (JAXBElement<?>) copy.content.get(0);
+        Assert.assertNotSame(element, copiedElement);
+        Assert.assertEquals(NAME, copiedElement.getName());
+        Assert.assertEquals(Item.class, copiedElement.getDeclaredType());
+        Assert.assertTrue(copiedElement.isNil());
+        Assert.assertNotSame(element.getValue(), copiedElement.getValue());
+        Assert.assertEquals("value", ((Item) copiedElement.getValue()).name);
+        Assert.assertEquals("text", copy.content.get(1));
+    }
+
+    @Test
+    public void sharedReferencesStayShared() throws Exception {
+        Item item = new Item("root");
+        Item shared = new Item("shared");
+        item.first = shared;
+        item.second = shared;
+        item.content.add(shared);
+        shared.parent = item;
+
+        Item copy = ObjectCopier.copy(item);
+
+        Assert.assertNotSame(shared, copy.first);
+        Assert.assertSame(copy.first, copy.second);
+        Assert.assertSame(copy.first, copy.content.get(0));
+        Assert.assertSame(copy, copy.first.parent);
+    }
+
+    @Test
+    public void copyIsIndependentOfTheOriginal() throws Exception {
+        Item item = new Item("root");
+        item.first = new Item("child");
+        item.content.add(new Item("content"));
+
+        Item copy = ObjectCopier.copy(item);
+        item.name = "changed";
+        item.first.name = "changed";
+        item.content.clear();
+
+        Assert.assertEquals("root", copy.name);
+        Assert.assertEquals("child", copy.first.name);
+        Assert.assertEquals(1, copy.content.size());
+        Assert.assertEquals("content", ((Item) copy.content.get(0)).name);
+    }
+}
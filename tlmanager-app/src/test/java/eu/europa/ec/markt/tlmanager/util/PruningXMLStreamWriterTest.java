@@ -0,0 +1,289 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+/**
+ * Checks that {@link PruningXMLStreamWriter} drops the same content as marshalling into a <code>Document</code> followed
+ * by {@link Util#removeEmptyNodesFromTheBottom(Node)}, which is what <code>TSLComposer.marshall()</code> does.
+ *
+ *
+ */
+
+public class PruningXMLStreamWriterTest {
+
+    private static final String ROOT_START = "<tsl:TrustServiceStatusList xmlns:tsl=\"http://uri.etsi.org/02231/v2#\""
+            + " xmlns:ecc=\"http://uri.etsi.org/TrstSvc/SvcInfoExt/eSigDir-1999-93-EC-TrustedList/#\""
+            + " xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" Id=\"TSL\">";
+
+    private static final String ROOT_END = "</tsl:TrustServiceStatusList>";
+
+    @Test
+    public void defaultValuesAreDropped() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation>"
+                + "<tsl:TSLType>-</tsl:TSLType>"
+                + "<tsl:SchemeName><tsl:Name xml:lang=\"en\">-</tsl:Name></tsl:SchemeName>"
+                + "<tsl:SchemeOperatorName><tsl:Name xml:lang=\"en\"></tsl:Name></tsl:SchemeOperatorName>"
+                + "<tsl:SchemeTerritory>DE</tsl:SchemeTerritory>"
+                + "<tsl:StatusDeterminationApproach>-abc</tsl:StatusDeterminationApproach>"
+                + "</tsl:SchemeInformation>");
+
+        Assert.assertFalse(pruned, pruned.contains("TSLType"));
+        Assert.assertFalse(pruned, pruned.contains("SchemeName"));
+        Assert.assertFalse(pruned, pruned.contains("SchemeOperatorName"));
+        Assert.assertTrue(pruned, pruned.contains("SchemeTerritory"));
+        Assert.assertTrue(pruned, pruned.contains("-abc"));
+    }
+
+    @Test
+    public void urisStartingWithDefaultValueAreDropped() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation><tsl:SchemeInformationURI>"
+                + "<tsl:URI xml:lang=\"en\">-http://www.example.org/en</tsl:URI>"
+                + "<tsl:URI xml:lang=\"fr\">-</tsl:URI>"
+                + "<tsl:URI xml:lang=\"de\">http://www.example.org/de</tsl:URI>"
+                + "</tsl:SchemeInformationURI>"
+                + "<tsl:SchemeTypeCommunityRules><tsl:URI xml:lang=\"en\">-http://www.example.org/rules</tsl:URI>"
+                + "</tsl:SchemeTypeCommunityRules>"
+                + "</tsl:SchemeInformation>");
+
+        Assert.assertFalse(pruned, pruned.contains("/en"));
+        Assert.assertFalse(pruned, pruned.contains("\"fr\""));
+        Assert.assertTrue(pruned, pruned.contains("http://www.example.org/de"));
+        Assert.assertFalse(pruned, pruned.contains("SchemeTypeCommunityRules"));
+    }
+
+    @Test
+    public void qualifiersWithAttributesAreKept() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:ServiceInformationExtensions><tsl:Extension Critical=\"true\">"
+                + "<ecc:Qualifications><ecc:QualificationElement>"
+                + "<ecc:Qualifiers><ecc:Qualifier uri=\"http://www.example.org/QCWithSSCD\"/></ecc:Qualifiers>"
+                + "<ecc:CriteriaList assert=\"-\"/>"
+                + "</ecc:QualificationElement><ecc:QualificationElement>"
+                + "<ecc:Qualifiers><ecc:Qualifier uri=\"-\"/></ecc:Qualifiers>"
+                + "</ecc:QualificationElement></ecc:Qualifications>"
+                + "</tsl:Extension></tsl:ServiceInformationExtensions>");
+
+        Assert.assertTrue(pruned, pruned.contains("QCWithSSCD"));
+        Assert.assertFalse(pruned, pruned.contains("CriteriaList"));
+        Assert.assertFalse(pruned, pruned.contains("uri=\"-\""));
+    }
+
+    @Test
+    public void emptyNextUpdateIsKept() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation>"
+                + "<tsl:ListIssueDateTime>-</tsl:ListIssueDateTime>"
+                + "<tsl:NextUpdate><tsl:dateTime>-</tsl:dateTime></tsl:NextUpdate>"
+                + "</tsl:SchemeInformation>");
+
+        Assert.assertFalse(pruned, pruned.contains("ListIssueDateTime"));
+        Assert.assertFalse(pruned, pruned.contains("dateTime"));
+        Assert.assertTrue(pruned, pruned.contains("NextUpdate"));
+    }
+
+    @Test
+    public void languageAttributesAreCleaned() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation><tsl:SchemeName>"
+                + "<tsl:Name xml:lang=\"en\">Scheme</tsl:Name>"
+                + "<tsl:Name xml:lang=\"de_1\">Schema</tsl:Name>"
+                + "<tsl:Name xml:lang=\"-\">Other</tsl:Name>"
+                + "</tsl:SchemeName></tsl:SchemeInformation>");
+
+        Assert.assertTrue(pruned, pruned.contains("lang=\"de\""));
+        Assert.assertFalse(pruned, pruned.contains("de_1"));
+        Assert.assertFalse(pruned, pruned.contains("lang=\"-\""));
+        Assert.assertTrue(pruned, pruned.contains("Other"));
+    }
+
+    @Test
+    public void signatureIsNotTouched() throws Exception {
+        String signature = "<ds:Signature Id=\"-\"><ds:SignedInfo>"
+                + "<ds:CanonicalizationMethod Algorithm=\"-\"/>"
+                + "<ds:Reference URI=\"\"><ds:DigestValue>-</ds:DigestValue></ds:Reference>"
+                + "</ds:SignedInfo><ds:SignatureValue>-</ds:SignatureValue><ds:Object/></ds:Signature>";
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation><tsl:TSLType>-</tsl:TSLType></tsl:SchemeInformation>"
+                + signature);
+
+        Assert.assertEquals(canonical(parse(ROOT_START + signature + ROOT_END)), pruned);
+    }
+
+    @Test
+    public void rootIsAlwaysWritten() throws Exception {
+        String pruned = assertPrunedAlike("<tsl:SchemeInformation><tsl:TSLType>-</tsl:TSLType></tsl:SchemeInformation>");
+
+        Assert.assertEquals("<{http://uri.etsi.org/02231/v2#}TrustServiceStatusList Id=\"TSL\"></>", pruned);
+    }
+
+    @Test
+    public void representativeListIsPrunedAlike() throws Exception {
+        assertPrunedAlike("<tsl:SchemeInformation>"
+                + "<tsl:TSLVersionIdentifier>4</tsl:TSLVersionIdentifier>"
+                + "<tsl:SchemeOperatorAddress><tsl:PostalAddresses>"
+                + "<tsl:PostalAddress xml:lang=\"en_2\"><tsl:StreetAddress>-</tsl:StreetAddress>"
+                + "<tsl:Locality>Brussels</tsl:Locality><tsl:CountryName>-</tsl:CountryName></tsl:PostalAddress>"
+                + "<tsl:PostalAddress xml:lang=\"-\"><tsl:StreetAddress>-</tsl:StreetAddress></tsl:PostalAddress>"
+                + "</tsl:PostalAddresses><tsl:ElectronicAddress><tsl:URI xml:lang=\"en\">-mailto:</tsl:URI>"
+                + "</tsl:ElectronicAddress></tsl:SchemeOperatorAddress>"
+                + "<tsl:PointersToOtherTSL><tsl:OtherTSLPointer>"
+                + "<tsl:TSLLocation>http://www.example.org/tsl.xml</tsl:TSLLocation>"
+                + "<tsl:AdditionalInformation><tsl:OtherInformation><tsl:SchemeTerritory>BE</tsl:SchemeTerritory>"
+                + "</tsl:OtherInformation><tsl:OtherInformation><tsl:MimeType>-</tsl:MimeType></tsl:OtherInformation>"
+                + "</tsl:AdditionalInformation></tsl:OtherTSLPointer></tsl:PointersToOtherTSL>"
+                + "<tsl:NextUpdate/>"
+                + "</tsl:SchemeInformation>"
+                + "<tsl:TrustServiceProviderList><tsl:TrustServiceProvider><tsl:TSPInformation>"
+                + "<tsl:TSPName><tsl:Name xml:lang=\"en\">Provider</tsl:Name></tsl:TSPName>"
+                + "<tsl:TSPTradeName><tsl:Name xml:lang=\"en\">-</tsl:Name></tsl:TSPTradeName>"
+                + "</tsl:TSPInformation><tsl:TSPServices><tsl:TSPService><tsl:ServiceInformation>"
+                + "<tsl:ServiceTypeIdentifier>http://uri.etsi.org/TrstSvc/Svctype/CA/QC</tsl:ServiceTypeIdentifier>"
+                + "<tsl:ServiceDigitalIdentity><tsl:DigitalId><tsl:X509SubjectName>-</tsl:X509SubjectName>"
+                + "</tsl:DigitalId></tsl:ServiceDigitalIdentity>"
+                + "<tsl:ServiceSupplyPoints><tsl:ServiceSupplyPoint>-http://</tsl:ServiceSupplyPoint>"
+                + "</tsl:ServiceSupplyPoints>"
+                + "<tsl:ServiceInformationExtensions><tsl:Extension Critical=\"true\"><ecc:Qualifications>"
+                + "<ecc:QualificationElement><ecc:Qualifiers><ecc:Qualifier uri=\"-\"/>"
+                + "<ecc:Qualifier uri=\"http://www.example.org/QCNoSSCD\"/></ecc:Qualifiers>"
+                + "<ecc:CriteriaList assert=\"atLeastOne\"><ecc:PolicySet><ecc:PolicyIdentifier>"
+                + "<ecc:Identifier Qualifier=\"-\">-</ecc:Identifier></ecc:PolicyIdentifier></ecc:PolicySet>"
+                + "</ecc:CriteriaList></ecc:QualificationElement></ecc:Qualifications></tsl:Extension>"
+                + "</tsl:ServiceInformationExtensions>"
+                + "</tsl:ServiceInformation></tsl:TSPService></tsl:TSPServices></tsl:TrustServiceProvider>"
+                + "</tsl:TrustServiceProviderList>"
+                + "<ds:Signature><ds:SignatureValue>-</ds:SignatureValue></ds:Signature>");
+    }
+
+    /**
+     * Prunes the given content of a list in both ways and checks that the results are the same.
+     *
+     * @param content the children of the root element, without whitespace between the elements
+     * @return the canonical form of the pruned list
+     */
+    private static String assertPrunedAlike(String content) throws Exception {
+        String xml = ROOT_START + content + ROOT_END;
+
+        Document document = parse(xml);
+        Util.removeEmptyNodesFromTheBottom(document.getDocumentElement());
+        String expected = canonical(document);
+
+        String actual = canonical(parse(pruneWhileWriting(xml)));
+
+        Assert.assertEquals(expected, actual);
+        return actual;
+    }
+
+    private static String pruneWhileWriting(String xml) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        XMLStreamWriter writer = new PruningXMLStreamWriter(XmlFactories.getXMLOutputFactory().createXMLStreamWriter(buffer, "UTF-8"), "UTF-8", 3);
+        XMLStreamReader reader = XmlFactories.getXMLInputFactory().createXMLStreamReader(new StringReader(xml));
+
+        // the same calls as a marshaller makes
+        writer.writeStartDocument();
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    writer.writeStartElement(prefix(reader.getPrefix()), reader.getLocalName(), reader.getNamespaceURI());
+                    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                        writer.writeNamespace(prefix(reader.getNamespacePrefix(i)), reader.getNamespaceURI(i));
+                    }
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        writer.writeAttribute(prefix(reader.getAttributePrefix(i)), reader.getAttributeNamespace(i),
+                                reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    writer.writeEndElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                    writer.writeCharacters(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        writer.writeEndDocument();
+        writer.close();
+        reader.close();
+        return buffer.toString("UTF-8");
+    }
+
+    private static String prefix(String prefix) {
+        return prefix == null ? "" : prefix;
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * Renders a document without namespace declarations and without whitespace between elements, i.e. without the
+     * indentation of the written list.
+     */
+    private static String canonical(Document document) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, document.getDocumentElement());
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, Node node) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            if (!node.getNodeValue().trim().isEmpty()) {
+                sb.append(node.getNodeValue());
+            }
+            return;
+        }
+        sb.append("<{").append(node.getNamespaceURI()).append('}').append(node.getLocalName());
+        Map<String, String> attributes = new TreeMap<String, String>();
+        NamedNodeMap attributeNodes = node.getAttributes();
+        for (int i = 0; i < attributeNodes.getLength(); i++) {
+            Node attribute = attributeNodes.item(i);
+            if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+                attributes.put(attribute.getLocalName(), attribute.getNodeValue());
+            }
+        }
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            sb.append(' ').append(attribute.getKey()).append("=\"").append(attribute.getValue()).append('"');
+        }
+        sb.append('>');
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            append(sb, child);
+        }
+        sb.append("</>");
+    }
+}
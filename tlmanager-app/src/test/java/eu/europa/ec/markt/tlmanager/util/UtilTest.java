@@ -0,0 +1,143 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.util;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests for {@link Util#sortChildNodes(Node, boolean)}.
+ *
+ *
+ */
+
+public class UtilTest {
+
+    private static final String TSL = "http://uri.etsi.org/02231/v2#";
+
+    @Test
+    public void providersAreSortedByName() throws Exception {
+        String xml = list("<TrustServiceProviderList>" + provider("Beta") + provider("Gamma") + provider("Alpha")
+                + "</TrustServiceProviderList>");
+
+        Assert.assertEquals("[Alpha, Beta, Gamma]", sorted(xml, true, "TSPName"));
+        Assert.assertEquals("[Gamma, Beta, Alpha]", sorted(xml, false, "TSPName"));
+    }
+
+    @Test
+    public void servicesAreSortedByName() throws Exception {
+        String xml = list("<TrustServiceProviderList><TrustServiceProvider><TSPInformation><TSPName><Name>Provider</Name>"
+                + "</TSPName></TSPInformation><TSPServices>" + service("OCSP") + service("CA") + service("TSA")
+                + "</TSPServices></TrustServiceProvider></TrustServiceProviderList>");
+
+        Assert.assertEquals("[CA, OCSP, TSA]", sorted(xml, true, "ServiceName"));
+        Assert.assertEquals("[TSA, OCSP, CA]", sorted(xml, false, "ServiceName"));
+    }
+
+    @Test
+    public void pointersAreSortedByTerritoryWithPdfFirst() throws Exception {
+        String xml = list("<SchemeInformation><PointersToOtherTSL>" + pointer("FR", "fr.xml") + pointer("BE", "be.xml")
+                + pointer("BE", "be.pdf") + pointer("AT", "at.pdf") + "</PointersToOtherTSL></SchemeInformation>");
+
+        Assert.assertEquals("[at.pdf, be.pdf, be.xml, fr.xml]", sorted(xml, true, "TSLLocation"));
+        Assert.assertEquals("[fr.xml, be.xml, be.pdf, at.pdf]", sorted(xml, false, "TSLLocation"));
+    }
+
+    @Test
+    public void pdfTieBreakComparesTheFirstTwoCharactersOfTheTerritory() throws Exception {
+        String xml = list("<SchemeInformation><PointersToOtherTSL>" + pointer("DEA", "dea.xml") + pointer("DE", "de.xml")
+                + pointer("DEX", "dex.pdf") + pointer("AT", "at.xml") + "</PointersToOtherTSL></SchemeInformation>");
+
+        Assert.assertEquals("[at.xml, dex.pdf, de.xml, dea.xml]", sorted(xml, true, "TSLLocation"));
+        Assert.assertEquals("[dea.xml, de.xml, dex.pdf, at.xml]", sorted(xml, false, "TSLLocation"));
+    }
+
+    @Test
+    public void shortTerritoriesAreSorted() throws Exception {
+        String xml = list("<SchemeInformation><PointersToOtherTSL>" + pointer("D", "d.xml") + pointer("", "none.xml")
+                + pointer("D", "d.pdf") + pointer("AT", "at.xml") + "</PointersToOtherTSL></SchemeInformation>");
+
+        Assert.assertEquals("[none.xml, at.xml, d.pdf, d.xml]", sorted(xml, true, "TSLLocation"));
+        Assert.assertEquals("[d.xml, d.pdf, at.xml, none.xml]", sorted(xml, false, "TSLLocation"));
+    }
+
+    @Test
+    public void mixedChildrenAreNotSorted() throws Exception {
+        String xml = list("<TrustServiceProviderList>" + provider("Beta") + "<Other/>" + provider("Alpha")
+                + "</TrustServiceProviderList>");
+
+        Assert.assertEquals("[Beta, Alpha]", sorted(xml, true, "TSPName"));
+    }
+
+    private static String list(String content) {
+        return "<TrustServiceStatusList xmlns=\"" + TSL + "\">" + content + "</TrustServiceStatusList>";
+    }
+
+    private static String provider(String name) {
+        return "<TrustServiceProvider><TSPInformation><TSPName><Name>" + name + "</Name></TSPName></TSPInformation>"
+                + "</TrustServiceProvider>";
+    }
+
+    private static String service(String name) {
+        return "<TSPService><ServiceInformation><ServiceName><Name>" + name + "</Name></ServiceName></ServiceInformation>"
+                + "</TSPService>";
+    }
+
+    private static String pointer(String territory, String location) {
+        return "<OtherTSLPointer><TSLLocation>" + location + "</TSLLocation><AdditionalInformation><OtherInformation>"
+                + "<SchemeTerritory>" + territory + "</SchemeTerritory></OtherInformation></AdditionalInformation>"
+                + "</OtherTSLPointer>";
+    }
+
+    /**
+     * Sorts the given list and returns the texts of the given elements in document order.
+     */
+    private static String sorted(String xml, boolean descending, String localName) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+
+        Util.sortChildNodes(document.getDocumentElement(), descending);
+
+        List<String> texts = new ArrayList<String>();
+        collect(document.getDocumentElement(), localName, texts);
+        return texts.toString();
+    }
+
+    private static void collect(Node node, String localName, List<String> texts) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (localName.equals(child.getLocalName())) {
+                texts.add(child.getTextContent());
+            } else {
+                collect(child, localName, texts);
+            }
+        }
+    }
+}
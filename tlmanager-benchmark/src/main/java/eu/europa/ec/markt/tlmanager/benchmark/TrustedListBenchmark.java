@@ -0,0 +1,81 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.core.validation.Validation;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tlmanager.util.Util;
+import eu.europa.ec.markt.tsl.jaxb.tsl.TrustStatusListType;
+
+/**
+ * Measures the steps a list passes through from opening to signing. Run with
+ * {@code java -jar target/tlmanager-benchmark.jar}; the size of the lists is chosen with the JMH parameters of
+ * {@link TrustedListState}, e.g. {@code -p providers=1000}.
+ *
+ *
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TrustedListBenchmark {
+
+	@Benchmark
+	public TrustStatusListType openFile(TrustedListState state) throws Exception {
+		TSLComposer composer = new TSLComposer(null);
+		composer.openFile(state.listFile);
+		return composer.getTsl();
+	}
+
+	@Benchmark
+	public ValidationLogger validate(TrustedListState state) {
+		return new Validation(state.validationParameters, state.composer.getTsl()).validate();
+	}
+
+	@Benchmark
+	public Document marshall(TrustedListState state) throws Exception {
+		return state.composer.marshall();
+	}
+
+	@Benchmark
+	public void prettySave(TrustedListState state) throws Exception {
+		Util.prettySave(state.document, state.outputFile);
+	}
+
+	@Benchmark
+	public void initInMemoryDocument(TrustedListState state) {
+		state.signatureManager.initInMemoryDocument(state.document);
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * TL Manager
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "TL Manager" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.ec.markt.tlmanager.benchmark;
+
+import java.io.File;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Document;
+
+import eu.europa.ec.markt.tlmanager.TSLComposer;
+import eu.europa.ec.markt.tlmanager.core.generator.TrustedListGenerator;
+import eu.europa.ec.markt.tlmanager.core.signature.SignatureManager;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationLogger;
+import eu.europa.ec.markt.tlmanager.core.validation.ValidationParameters;
+
+/**
+ * A generated list in all the forms the benchmarks start from: as a file, opened in a {@code TSLComposer} and marshalled
+ * into a {@code Document}. The list is created once per trial, so generating keys is never measured.
+ *
+ *
+ */
+
+@State(Scope.Benchmark)
+public class TrustedListState {
+
+	@Param({"10", "100"})
+	public int providers;
+
+	@Param({"10"})
+	public int servicesPerProvider;
+
+	@Param({"2"})
+	public int historyInstancesPerService;
+
+	@Param({"1"})
+	public int extensionsPerService;
+
+	@Param({"20"})
+	public int certificates;
+
+	File listFile;
+	File outputFile;
+	TSLComposer composer;
+	Document document;
+	ValidationParameters validationParameters;
+	SignatureManager signatureManager;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		TrustedListGenerator generator = new TrustedListGenerator(providers, servicesPerProvider, historyInstancesPerService, extensionsPerService,
+				certificates);
+
+		listFile = File.createTempFile("tlmanager-benchmark", ".xml");
+		outputFile = File.createTempFile("tlmanager-benchmark-out", ".xml");
+
+		// written and read again, so that the benchmarks see the list exactly as the application does after opening it
+		composer = new TSLComposer(null);
+		composer.openTSL(generator.generate());
+		composer.saveToFile(listFile);
+		composer.openFile(listFile);
+
+		document = composer.marshall();
+		validationParameters = new ValidationParameters();
+		signatureManager = new SignatureManager(new ValidationLogger());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		listFile.delete();
+		outputFile.delete();
+	}
+}